@@ -0,0 +1,97 @@
+package com.douglasjose.tech.csv.benchmark;
+
+import com.douglasjose.tech.csv.Csv;
+import com.douglasjose.tech.csv.CsvFactory;
+import com.douglasjose.tech.csv.CsvReader;
+import com.douglasjose.tech.csv.CsvRecord;
+import com.douglasjose.tech.csv.CustomDelimitersCsvParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of loading files of different shapes. Files are also read from the file
+ * system, to include the cost of reading them.
+ * Run with <code>-prof gc</code> to also report the allocation rate of each case.
+ *
+ * @author Douglas Rodrigues
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"5", "50"})
+    public int columns;
+
+    @Param({"0.0", "0.5"})
+    public double quoted;
+
+    @Param({"single", "multi"})
+    public String delimiters;
+
+    private byte[] content;
+    private File file;
+    private CustomDelimitersCsvParser parser;
+
+    @Setup
+    public void setUp() throws IOException {
+        String separator = SyntheticCsv.fieldSeparator(delimiters);
+        String delimiter = SyntheticCsv.textDelimiter(delimiters);
+        content = SyntheticCsv.generate(rows, columns, quoted, separator, delimiter);
+        file = File.createTempFile("parseBenchmark", ".csv");
+        file.deleteOnExit();
+        OutputStream os = new FileOutputStream(file);
+        os.write(content);
+        os.close();
+        parser = new CustomDelimitersCsvParser(separator, delimiter, Charset.forName("UTF-8"));
+    }
+
+    @Benchmark
+    public Csv loadBasicCsv() throws IOException {
+        Csv csv = CsvFactory.createCsv(parser);
+        parser.loadFile(csv, new ByteArrayInputStream(content));
+        return csv;
+    }
+
+    @Benchmark
+    public Csv loadDenseCsv() throws IOException {
+        Csv csv = CsvFactory.createDenseCsv(parser);
+        parser.loadFile(csv, new ByteArrayInputStream(content));
+        return csv;
+    }
+
+    @Benchmark
+    public void streamRecords(Blackhole blackhole) throws IOException {
+        consume(parser.createReader(new ByteArrayInputStream(content)), blackhole);
+    }
+
+    @Benchmark
+    public void streamFileRecords(Blackhole blackhole) throws IOException {
+        consume(parser.createReader(new FileInputStream(file)), blackhole);
+    }
+
+    private static void consume(CsvReader reader, Blackhole blackhole) throws IOException {
+        CsvRecord record;
+        while ((record = reader.nextRecord()) != null) {
+            for (int i = 0; i < record.size(); i++) {
+                blackhole.consume(record.get(i).length());
+            }
+        }
+        reader.close();
+    }
+}
@@ -0,0 +1,59 @@
+package com.douglasjose.tech.csv.benchmark;
+
+import com.douglasjose.tech.csv.Csv;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of <code>Csv.get</code> on random positions. Run with <code>-t</code> to
+ * measure contention of the thread-safe implementations.
+ *
+ * @author Douglas Rodrigues
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RandomAccessBenchmark {
+
+    private static final int POSITIONS = 4096;
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"30"})
+    public int columns;
+
+    @Param({"basic", "synchronized", "dense"})
+    public String implementation;
+
+    private Csv csv;
+    private int[] positionRows = new int[POSITIONS];
+    private int[] positionColumns = new int[POSITIONS];
+
+    @Setup
+    public void setUp() {
+        csv = SyntheticCsv.create(implementation, ",", "\"");
+        SyntheticCsv.fill(csv, rows, columns, 0.1, ",", "\"");
+        Random random = new Random(42);
+        for (int i = 0; i < POSITIONS; i++) {
+            positionRows[i] = random.nextInt(rows);
+            positionColumns[i] = random.nextInt(columns);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public String get(Cursor cursor) {
+        int i = cursor.next++ & (POSITIONS - 1);
+        return csv.get(positionRows[i], positionColumns[i]);
+    }
+}
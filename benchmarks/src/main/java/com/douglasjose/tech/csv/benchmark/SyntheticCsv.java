@@ -0,0 +1,104 @@
+package com.douglasjose.tech.csv.benchmark;
+
+import com.douglasjose.tech.csv.Csv;
+import com.douglasjose.tech.csv.CsvFactory;
+import com.douglasjose.tech.csv.CsvWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Random;
+
+/**
+ * Generates synthetic CSV content for the benchmarks. The content is deterministic for a given
+ * set of parameters, so results are comparable between runs.
+ *
+ * @author Douglas Rodrigues
+ */
+public class SyntheticCsv {
+
+    private SyntheticCsv() {} // Do not instantiate this class
+
+    /**
+     * Separators used by the benchmarks: a single character and a multi-character one.
+     *
+     * @param name "single" or "multi"
+     * @return Field separator
+     */
+    public static String fieldSeparator(String name) {
+        return "multi".equals(name) ? "[F]" : ",";
+    }
+
+    /**
+     * @param name "single" or "multi"
+     * @return Text delimiter
+     */
+    public static String textDelimiter(String name) {
+        return "multi".equals(name) ? "[T]" : "\"";
+    }
+
+    /**
+     * Fills a <code>Csv</code> with generated content.
+     *
+     * @param csv Destination data structure
+     * @param rows Number of rows
+     * @param columns Number of columns
+     * @param quoted Fraction (0 to 1) of the fields which require text delimiters when written
+     * @param separator Field separator the quoted fields contain
+     * @param delimiter Text delimiter some of the quoted fields contain
+     */
+    public static void fill(Csv csv, int rows, int columns, double quoted, String separator,
+                            String delimiter) {
+        Random random = new Random(rows * 31L + columns);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                csv.add(i, j, field(random, i, j, quoted, separator, delimiter));
+            }
+        }
+    }
+
+    /**
+     * Generates the content of a CSV file.
+     *
+     * @return The file, encoded in UTF-8
+     */
+    public static byte[] generate(int rows, int columns, double quoted, String separator,
+                                  String delimiter) throws IOException {
+        Random random = new Random(rows * 31L + columns);
+        ByteArrayOutputStream os = new ByteArrayOutputStream(rows * columns * 8);
+        CsvWriter writer = new CsvWriter(os, separator, delimiter,
+                Charset.forName("UTF-8"));
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                writer.writeField(field(random, i, j, quoted, separator, delimiter));
+            }
+            writer.endRow();
+        }
+        writer.close();
+        return os.toByteArray();
+    }
+
+    private static String field(Random random, int row, int column, double quoted,
+                                String separator, String delimiter) {
+        if (random.nextDouble() < quoted) {
+            return random.nextBoolean() ? "text" + separator + row
+                    : "say " + delimiter + "hi" + delimiter;
+        }
+        // Mostly numeric content, as in typical exports
+        return column % 3 == 0 ? "name" + random.nextInt(1000) : Integer.toString(random.nextInt());
+    }
+
+    /**
+     * @return An empty Csv of a given implementation
+     */
+    public static Csv create(String implementation, String separator, String delimiter) {
+        if ("dense".equals(implementation)) {
+            return CsvFactory.createDenseCsvWithCustomDelimiters(separator, delimiter);
+        }
+        Csv csv = CsvFactory.createCsvWithCustomDelimiters(separator, delimiter);
+        if ("synchronized".equals(implementation)) {
+            return CsvFactory.synchronizedCsv(csv);
+        }
+        return csv;
+    }
+}
@@ -0,0 +1,62 @@
+package com.douglasjose.tech.csv.benchmark;
+
+import com.douglasjose.tech.csv.Csv;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of writing a <code>Csv</code> to a stream which discards the output.
+ * Run with <code>-prof gc</code> to also report the allocation rate of each case.
+ *
+ * @author Douglas Rodrigues
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WriteBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"5", "50"})
+    public int columns;
+
+    @Param({"0.0", "0.5"})
+    public double quoted;
+
+    @Param({"single", "multi"})
+    public String delimiters;
+
+    @Param({"basic", "dense"})
+    public String implementation;
+
+    private Csv csv;
+
+    @Setup
+    public void setUp() {
+        String separator = SyntheticCsv.fieldSeparator(delimiters);
+        String delimiter = SyntheticCsv.textDelimiter(delimiters);
+        csv = SyntheticCsv.create(implementation, separator, delimiter);
+        SyntheticCsv.fill(csv, rows, columns, quoted, separator, delimiter);
+    }
+
+    @Benchmark
+    public void writeFile() throws IOException {
+        csv.store(new NullOutputStream());
+    }
+
+    private static class NullOutputStream extends OutputStream {
+
+        public void write(int b) {
+        }
+
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.douglasjose.tech.csv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Base class for {@link com.douglasjose.tech.csv.Csv} implementations which delegate persistence
+ * to a {@link com.douglasjose.tech.csv.CsvParser}.
+ * Subclasses only have to provide the in-memory storage of the data.
+ *
+ * @author Douglas Rodrigues
+ */
+public abstract class AbstractCsv implements Csv {
+
+    private final CsvParser csvParser;
+    private Header header;
+
+    protected AbstractCsv(CsvParser parser) {
+        this.csvParser = parser;
+    }
+
+    /**
+     * Discards all the content of the data structure.
+     */
+    protected abstract void clear();
+
+    /**
+     * Adds a record read by the parser, one field at a time through
+     * {@link #addField(int, int, CharSequence)}. The record is only valid during the call.
+     * Implementations which can store a whole row at once should override this method.
+     *
+     * @param row Zero-based row index
+     * @param record Fields of the row
+     */
+    protected void addRecord(int row, CsvRecord record) {
+        for (int column = 0; column < record.size(); column++) {
+            addField(row, column, record.get(column));
+        }
+    }
+
+    /**
+     * Adds the content of a field read by the parser. The content may be a view over the buffer
+     * of the parser, and is only valid during the call.
+     * Implementations which can store the content without converting it to a
+     * <code>String</code> should override this method.
+     *
+     * @param row Zero-based row index
+     * @param column Zero-based column index
+     * @param content Content of the field
+     */
+    protected void addField(int row, int column, CharSequence content) {
+        add(row, column, content.toString());
+    }
+
+    /**
+     * Checks the bounds of a range of positions.
+     */
+    protected static void checkRange(int fromRow, int fromColumn, int toRow, int toColumn) {
+        if (fromRow < 0 || fromColumn < 0) {
+            throw new IndexOutOfBoundsException("Invalid CSV position: [" + fromRow + ","
+                    + fromColumn + "]");
+        }
+        if (toRow < fromRow || toColumn < fromColumn) {
+            throw new IllegalArgumentException("Invalid CSV range: [" + fromRow + ","
+                    + fromColumn + "] to [" + toRow + "," + toColumn + "]");
+        }
+    }
+
+    /**
+     * Reads a CSV file from a stream, discarding any existing content.
+     *
+     * @param is Stream to read the CSV file from
+     * @throws IOException If the data could not be read from the stream
+     */
+    public void load(InputStream is) throws IOException {
+        clear();
+        setHeader(null);
+        csvParser.loadFile(this, is);
+    }
+
+    /**
+     * Reads a CSV file from the file system, discarding any existing content.
+     *
+     * @param path Location of the CSV file
+     * @throws IOException If the data could not be read from the file
+     */
+    public void load(Path path) throws IOException {
+        clear();
+        setHeader(null);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            csvParser.loadFile(this, channel);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes the CSV file to a stream.
+     *
+     * @param os Stream to write the CSV file to
+     * @throws IOException If the data could not be written to the stream
+     */
+    public void store(OutputStream os) throws IOException {
+        csvParser.writeFile(this, os);
+    }
+
+    /**
+     * @return Names of the columns, or <code>null</code> if the columns are not named
+     */
+    public Header getHeader() {
+        return header;
+    }
+
+    /**
+     * @param header Names of the columns, or <code>null</code> to remove the header
+     */
+    public void setHeader(Header header) {
+        this.header = header;
+    }
+
+    /**
+     * @return Parser used to persist this data structure
+     */
+    protected CsvParser getParser() {
+        return csvParser;
+    }
+}
@@ -1,9 +1,9 @@
 package com.douglasjose.tech.csv;
 
-import java.io.*;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.Set;
 
 /**
  * Simple implementation of the {@link com.douglasjose.tech.csv.Csv} interface.
@@ -11,17 +11,19 @@ import java.util.Set;
  *
  * @author Douglas Rodrigues
  */
-public class BasicCsv implements Csv {
+public class BasicCsv extends AbstractCsv {
 
     private Map<Integer, Map<Integer, String>> data = new HashMap<Integer, Map<Integer, String>>();
+    // Number of filled positions in each column; rows are filled if they have a map
+    private int[] columnCounts = new int[0];
+    // Number of filled positions
+    private int cells = 0;
 
-    private CsvParser csvParser;
-    
     private int columns = 0;
     private int rows = 0;
 
     protected BasicCsv(CsvParser parser) {
-        this.csvParser = parser;
+        super(parser);
     }
 
     /**
@@ -38,11 +40,44 @@ public class BasicCsv implements Csv {
             rowMap = new HashMap<Integer, String>();
             data.put(row, rowMap);
         }
-        rowMap.put(column, content);
+        // Null content is stored as empty, so the map never holds null values
+        if (rowMap.put(column, content != null ? content : "") == null) {
+            growColumns(column + 1);
+            columnCounts[column]++;
+            cells++;
+        }
         columns = Math.max(columns, column + 1);
         rows = Math.max(rows, row + 1);
     }
 
+    /**
+     * Adds content to the first positions of a row, looking the row up only once.
+     * Silently replaces existing content.
+     *
+     * @param row Zero-based row index
+     * @param fields Content to be stored in the columns 0 to <code>fields.length - 1</code>
+     */
+    public void addRow(int row, String... fields) {
+        if (fields.length == 0) {
+            return;
+        }
+        Map<Integer, String> rowMap = data.get(row);
+        if (rowMap == null) {
+            rowMap = new HashMap<Integer, String>(fields.length * 4 / 3 + 1);
+            data.put(row, rowMap);
+        }
+        growColumns(fields.length);
+        for (int column = 0; column < fields.length; column++) {
+            String content = fields[column];
+            if (rowMap.put(column, content != null ? content : "") == null) {
+                columnCounts[column]++;
+                cells++;
+            }
+        }
+        columns = Math.max(columns, fields.length);
+        rows = Math.max(rows, row + 1);
+    }
+
     /**
      * Reads the content in the position [row, column] of the file. Return the empty String if there
      * is no content in the given position.
@@ -65,6 +100,27 @@ public class BasicCsv implements Csv {
         return "";
     }
 
+    /**
+     * Reads the content of all the positions of a row, looking the row up only once.
+     *
+     * @param row Zero-based row index
+     * @return Row with one field per column of the file
+     */
+    public Row getRow(int row) {
+        if (row < 0 || row >= this.rows) {
+            throw new IndexOutOfBoundsException("Invalid CSV row: " + row);
+        }
+        String[] fields = new String[columns];
+        Arrays.fill(fields, "");
+        Map<Integer, String> rowMap = data.get(row);
+        if (rowMap != null) {
+            for (Map.Entry<Integer, String> entry : rowMap.entrySet()) {
+                fields[entry.getKey()] = entry.getValue();
+            }
+        }
+        return new Row(row, fields);
+    }
+
     /**
      * Removes the content from the position [row, column].
      * @param row Zero-based row index
@@ -74,12 +130,13 @@ public class BasicCsv implements Csv {
     public boolean remove(int row, int column) {
         Map<Integer, String> rowMap = data.get(row);
         if (rowMap != null) {
-            if (rowMap.containsKey(column)) {
-                rowMap.remove(column);
+            if (rowMap.remove(column) != null) {
                 if (rowMap.isEmpty()) {
                     data.remove(row);
-                }                
-                recalculateDimension();
+                }
+                columnCounts[column]--;
+                cells--;
+                shrink();
                 return true;
             }
         }
@@ -87,27 +144,60 @@ public class BasicCsv implements Csv {
     }
 
     /**
-     * Reads a CSV file from a stream
-     * 
-     * @param is Stream to read the CSV file from
-     * @throws IOException
+     * Removes the content from all the positions within a range. Only the filled positions of
+     * the range are visited.
+     *
+     * @param fromRow First row of the range, inclusive
+     * @param fromColumn First column of the range, inclusive
+     * @param toRow Last row of the range, exclusive
+     * @param toColumn Last column of the range, exclusive
+     * @return If the operation modified the data structure
      */
-    public void load(InputStream is) throws IOException {
-        // Discarding any existing state
+    public boolean removeRange(int fromRow, int fromColumn, int toRow, int toColumn) {
+        checkRange(fromRow, fromColumn, toRow, toColumn);
+        boolean modified = false;
+        int lastRow = Math.min(toRow, rows);
+        if (lastRow - fromRow > data.size()) {
+            Iterator<Map.Entry<Integer, Map<Integer, String>>> it = data.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Integer, Map<Integer, String>> entry = it.next();
+                int row = entry.getKey();
+                if (row >= fromRow && row < lastRow) {
+                    modified |= removeColumns(entry.getValue(), fromColumn, toColumn);
+                    if (entry.getValue().isEmpty()) {
+                        it.remove();
+                    }
+                }
+            }
+        } else {
+            for (int row = fromRow; row < lastRow; row++) {
+                Map<Integer, String> rowMap = data.get(row);
+                if (rowMap != null) {
+                    modified |= removeColumns(rowMap, fromColumn, toColumn);
+                    if (rowMap.isEmpty()) {
+                        data.remove(row);
+                    }
+                }
+            }
+        }
+        shrink();
+        return modified;
+    }
+
+    protected void addRecord(int row, CsvRecord record) {
+        String[] fields = new String[record.size()];
+        for (int column = 0; column < fields.length; column++) {
+            fields[column] = record.get(column).toString();
+        }
+        addRow(row, fields);
+    }
+
+    protected void clear() {
         data = new HashMap<Integer, Map<Integer, String>>();
+        columnCounts = new int[0];
+        cells = 0;
         rows = 0;
         columns = 0;
-        csvParser.loadFile(this, is);
-    }
-
-    /**
-     * Writes the CSV file to a stream.
-     *
-     * @param os Stream to write the CSV file to
-     * @throws IOException
-     */
-    public void store(OutputStream os) throws IOException {
-        csvParser.writeFile(this, os);
     }
 
     /**
@@ -124,15 +214,69 @@ public class BasicCsv implements Csv {
         return rows;
     }
 
-    private void recalculateDimension() {
-        rows = 0; columns = 0;
-        Set<Integer> rowIndexes = data.keySet();
-        for (Integer rowIndex : rowIndexes) {
-            rows = Math.max(rows, rowIndex + 1);
-            Set<Integer> columnIndexes = data.get(rowIndex).keySet();
-            for (Integer columnIndex : columnIndexes) {
-                columns = Math.max(columns, columnIndex + 1);
+    private boolean removeColumns(Map<Integer, String> rowMap, int fromColumn, int toColumn) {
+        int lastColumn = Math.min(toColumn, columns);
+        boolean modified = false;
+        if (lastColumn - fromColumn > rowMap.size()) {
+            Iterator<Integer> it = rowMap.keySet().iterator();
+            while (it.hasNext()) {
+                int column = it.next();
+                if (column >= fromColumn && column < lastColumn) {
+                    it.remove();
+                    columnCounts[column]--;
+                    cells--;
+                    modified = true;
+                }
+            }
+        } else {
+            for (int column = fromColumn; column < lastColumn; column++) {
+                if (rowMap.remove(column) != null) {
+                    columnCounts[column]--;
+                    cells--;
+                    modified = true;
+                }
+            }
+        }
+        return modified;
+    }
+
+    private void growColumns(int minColumns) {
+        if (minColumns > columnCounts.length) {
+            int[] newCounts = new int[Math.max(minColumns,
+                    columnCounts.length + (columnCounts.length >> 1) + 1)];
+            System.arraycopy(columnCounts, 0, newCounts, 0, columnCounts.length);
+            columnCounts = newCounts;
+        }
+    }
+
+    // Walks the dimensions back over the empty last rows and columns. In sparse sheets the gap
+    // before the previous filled row or column may be much larger than the content, so the walk
+    // is limited to the number of filled rows (or positions), after which the filled positions
+    // are scanned instead
+    private void shrink() {
+        int steps = 0;
+        while (rows > 0 && !data.containsKey(rows - 1)) {
+            if (++steps > data.size()) {
+                rows = 0;
+                for (int row : data.keySet()) {
+                    rows = Math.max(rows, row + 1);
+                }
+                break;
+            }
+            rows--;
+        }
+        steps = 0;
+        while (columns > 0 && columnCounts[columns - 1] == 0) {
+            if (++steps > cells) {
+                columns = 0;
+                for (Map<Integer, String> rowMap : data.values()) {
+                    for (int column : rowMap.keySet()) {
+                        columns = Math.max(columns, column + 1);
+                    }
+                }
+                break;
             }
+            columns--;
         }
     }
 
@@ -0,0 +1,426 @@
+package com.douglasjose.tech.csv;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+
+/**
+ * Scanner which splits the raw bytes of a file, without decoding them first. Only the content of
+ * the fields is decoded, and only when it is requested.
+ * The bytes are read into a single reusable buffer, and the fields are split in place.
+ * Byte scanning is only possible for ASCII compatible encodings, where the bytes of the
+ * delimiters and of the line terminators never occur within the encoding of another character.
+ * <p>
+ * Runs of plain content are skipped eight bytes at a time: each word of the buffer is checked at
+ * once (SWAR) for the bytes which may start a field separator, a text delimiter or a line
+ * terminator, so the delimiters are only matched where their first byte occurs.
+ *
+ * @author Douglas Rodrigues
+ */
+abstract class ByteRecordScanner extends RecordScanner {
+
+    private static final int BUFFER_SIZE = 65536;
+
+    // Word with every byte set to one, and word with the high bit of every byte set
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long LINE_FEEDS = LOW_BITS * '\n';
+    private static final long CARRIAGE_RETURNS = LOW_BITS * '\r';
+
+    private final byte[] textDelimiter;
+    private final byte[] fieldSeparator;
+    private final Charset charset;
+    // If every byte is decoded to the char with the same value
+    private final boolean latin1;
+    // Number of bytes which must be available to match any delimiter
+    private final int lookahead;
+    // Words with every byte set to the first byte of the field separator and text delimiter
+    private final long separators;
+    private final long delimiters;
+
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    // Number of bytes of the file before the beginning of the buffer
+    private long bufferStart = 0;
+    // Little-endian view of the buffer, reading the bytes in the order they occur as a word
+    private ByteBuffer words = wrap(buffer);
+    // Start of the unread content of the buffer
+    private int position = 0;
+    // End of the valid content of the buffer
+    private int limit = 0;
+    private boolean endOfStream = false;
+    // If a '\n' immediately following the last record ending ('\r') must be skipped
+    private boolean skipLineFeed = false;
+    // If the current record was ended by a line terminator, rather than by the end of the file
+    private boolean terminated = false;
+
+    // Boundaries of the fields of the current record in the buffer
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    private int fieldCount = 0;
+    private FieldView[] views = new FieldView[0];
+
+    protected ByteRecordScanner(String fieldSeparator, String textDelimiter, Charset charset) {
+        this.textDelimiter = textDelimiter.getBytes(charset);
+        this.fieldSeparator = fieldSeparator.getBytes(charset);
+        this.charset = charset;
+        this.latin1 = "ISO-8859-1".equals(charset.name());
+        this.lookahead = Math.max(this.fieldSeparator.length, this.textDelimiter.length * 2);
+        this.separators = LOW_BITS * (this.fieldSeparator[0] & 0xff);
+        this.delimiters = LOW_BITS * (this.textDelimiter[0] & 0xff);
+    }
+
+    /**
+     * Checks if files in a given encoding can be split by a byte scanner.
+     *
+     * @param charset Encoding of the file
+     * @return If the encoding is ASCII compatible
+     */
+    static boolean supports(Charset charset) {
+        String name = charset.name();
+        return "UTF-8".equals(name) || "ISO-8859-1".equals(name) || "US-ASCII".equals(name);
+    }
+
+    /**
+     * Reads and splits the next record in a single pass. A line terminator only ends the record
+     * when it is not within a text delimiter; otherwise it is part of the field content. Text
+     * delimiters are removed by moving the content backwards in the buffer, so no field is ever
+     * copied elsewhere.
+     */
+    protected boolean scan() throws IOException {
+        fieldCount = 0;
+        // If the current position points to a literal (within text delimiter) or not
+        boolean literal = false;
+        int i = position;
+        // Write position; equals the read position until a text delimiter is removed
+        int w = i;
+        int fieldStart = i;
+        while (true) {
+            if (limit - i < lookahead && !endOfStream) {
+                int shift = fill();
+                i -= shift;
+                w -= shift;
+                fieldStart -= shift;
+                for (int f = 0; f < fieldCount; f++) {
+                    fieldStarts[f] -= shift;
+                    fieldEnds[f] -= shift;
+                }
+                continue;
+            }
+            if (i >= limit) {
+                if (i == position) {
+                    return false;
+                }
+                // Last record of the file, without line terminator
+                if (w > fieldStart) {
+                    addField(fieldStart, w);
+                }
+                position = i;
+                terminated = false;
+                return true;
+            }
+            byte c = buffer[i];
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (c == '\n') {
+                    position = ++i;
+                    w = i;
+                    fieldStart = i;
+                    continue;
+                }
+            }
+            int run = skipPlain(i, literal) - i;
+            if (run > 0) {
+                if (w != i) {
+                    System.arraycopy(buffer, i, buffer, w, run);
+                }
+                i += run;
+                w += run;
+                continue;
+            }
+            if (!literal) {
+                if (c == '\n' || c == '\r') {
+                    if (w > fieldStart) {
+                        addField(fieldStart, w);
+                    }
+                    skipLineFeed = c == '\r';
+                    position = i + 1;
+                    terminated = true;
+                    return true;
+                }
+                if (startsWith(buffer, limit, fieldSeparator, i)) {
+                    addField(fieldStart, w);
+                    i += fieldSeparator.length;
+                    fieldStart = i;
+                    w = i;
+                    continue;
+                }
+            }
+            if (startsWith(buffer, limit, textDelimiter, i)) {
+                // Text delimiter found; if single, flip the literal flag,
+                // if double and within a literal, means it is part of the content
+                if (literal && startsWith(buffer, limit, textDelimiter, i + textDelimiter.length)) {
+                    System.arraycopy(buffer, i, buffer, w, textDelimiter.length);
+                    w += textDelimiter.length;
+                    i += textDelimiter.length * 2;
+                } else {
+                    literal = !literal;
+                    if (literal) {
+                        countQuotedField();
+                    }
+                    i += textDelimiter.length;
+                }
+            } else {
+                if (w != i) {
+                    buffer[w] = c;
+                }
+                w++;
+                i++;
+            }
+        }
+    }
+
+    public int size() {
+        return fieldCount;
+    }
+
+    public CharSequence get(int column) {
+        if (column < 0) {
+            throw new IndexOutOfBoundsException("Invalid column: " + column);
+        }
+        return column < fieldCount ? view(column) : "";
+    }
+
+    String getString(int column) {
+        return new String(buffer, fieldStarts[column], fieldEnds[column] - fieldStarts[column],
+                charset);
+    }
+
+    /**
+     * @return Number of bytes of the file consumed by the records read so far, including their
+     * line terminators
+     */
+    long getConsumed() {
+        return bufferStart + position;
+    }
+
+    /**
+     * @return If the current record was ended by a line terminator; the last record of a file may
+     * be ended by the end of the file instead, which is how a record still being written is seen
+     */
+    boolean isTerminated() {
+        return terminated;
+    }
+
+    /**
+     * @return If the last record was ended by a <code>'\r'</code>, so that a <code>'\n'</code>
+     * following it is part of the same line terminator
+     */
+    boolean isSkippingLineFeed() {
+        return skipLineFeed;
+    }
+
+    /**
+     * Resumes the scanning of a file after a record ended by a <code>'\r'</code>.
+     *
+     * @param skipLineFeed If a <code>'\n'</code> at the beginning of the content must be skipped
+     */
+    void setSkipLineFeed(boolean skipLineFeed) {
+        this.skipLineFeed = skipLineFeed;
+    }
+
+    /**
+     * Reads more bytes of the file.
+     *
+     * @param buffer Destination array
+     * @param offset Position of the first byte to be read in the array
+     * @param length Maximum number of bytes to be read, greater than zero
+     * @return Number of bytes read, or -1 at the end of the file
+     * @throws IOException If the data cannot be read
+     */
+    protected abstract int read(byte[] buffer, int offset, int length) throws IOException;
+
+    /**
+     * Moves the unread content to the beginning of the buffer and reads more data after it,
+     * growing the buffer if a single record does not fit into it.
+     *
+     * @return Number of positions the content was moved backwards
+     * @throws IOException If the data cannot be read
+     */
+    private int fill() throws IOException {
+        int shift = position;
+        int remaining = limit - position;
+        bufferStart += shift;
+        if (remaining == buffer.length) {
+            byte[] newBuffer = new byte[buffer.length * 2];
+            System.arraycopy(buffer, position, newBuffer, 0, remaining);
+            buffer = newBuffer;
+            words = wrap(buffer);
+        } else if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, remaining);
+        }
+        position = 0;
+        limit = remaining;
+        int read = read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfStream = true;
+        } else {
+            limit += read;
+        }
+        return shift;
+    }
+
+    /**
+     * Finds the end of a run of bytes which cannot start a delimiter, nor end the record. Within
+     * a literal, only the text delimiter ends the run.
+     *
+     * @param i Start of the run
+     * @return Position of the first byte after the run
+     */
+    private int skipPlain(int i, boolean literal) {
+        while (i + 8 <= limit) {
+            long word = words.getLong(i);
+            long found = literal ? matches(word, delimiters)
+                    : matches(word, separators) | matches(word, delimiters)
+                    | matches(word, LINE_FEEDS) | matches(word, CARRIAGE_RETURNS);
+            if (found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+            i += 8;
+        }
+        byte separator = fieldSeparator[0];
+        byte delimiter = textDelimiter[0];
+        while (i < limit) {
+            byte c = buffer[i];
+            if (c == delimiter || !literal && (c == separator || c == '\n' || c == '\r')) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Marks the bytes of a word which are equal to the bytes of a pattern with their high bit.
+     * Bytes after the first match may be marked wrongly, so only the lowest mark is exact.
+     */
+    private static long matches(long word, long pattern) {
+        long x = word ^ pattern;
+        return (x - LOW_BITS) & ~x & HIGH_BITS;
+    }
+
+    private static ByteBuffer wrap(byte[] buffer) {
+        return ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == fieldStarts.length) {
+            int[] newStarts = new int[fieldCount * 2];
+            int[] newEnds = new int[fieldCount * 2];
+            System.arraycopy(fieldStarts, 0, newStarts, 0, fieldCount);
+            System.arraycopy(fieldEnds, 0, newEnds, 0, fieldCount);
+            fieldStarts = newStarts;
+            fieldEnds = newEnds;
+        }
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldCount++;
+    }
+
+    /**
+     * Checks for the presence of a byte array (<code>pattern</code>) as a subsequence in
+     * <code>buffer[offset, end)</code>.
+     */
+    private static boolean startsWith(byte[] buffer, int end, byte[] pattern, int offset) {
+        if (offset + pattern.length > end || buffer[offset] != pattern[0]) {
+            return false;
+        }
+        for (int i = 1; i < pattern.length; i++) {
+            if (buffer[offset + i] != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private FieldView view(int column) {
+        if (column >= views.length) {
+            FieldView[] newViews = new FieldView[Math.max(column + 1, views.length * 2)];
+            System.arraycopy(views, 0, newViews, 0, views.length);
+            views = newViews;
+        }
+        FieldView view = views[column];
+        if (view == null) {
+            view = new FieldView(column);
+            views[column] = view;
+        }
+        return view;
+    }
+
+    /**
+     * View of a field of the current record; reused for every record read.
+     * ISO-8859-1 content is read straight from the bytes; other encodings are decoded once per
+     * record, on the first access.
+     */
+    private class FieldView implements CharSequence {
+
+        private final int column;
+        private String decoded;
+        private int decodedRecord = -1;
+        private boolean ascii;
+        private int asciiRecord = -1;
+
+        FieldView(int column) {
+            this.column = column;
+        }
+
+        public int length() {
+            return isAscii() ? fieldEnds[column] - fieldStarts[column] : decode().length();
+        }
+
+        public char charAt(int index) {
+            if (!isAscii()) {
+                return decode().charAt(index);
+            }
+            if (index < 0 || index >= length()) {
+                throw new IndexOutOfBoundsException("Invalid index: " + index);
+            }
+            return (char) (buffer[fieldStarts[column] + index] & 0xff);
+        }
+
+        public CharSequence subSequence(int start, int end) {
+            return decode().substring(start, end);
+        }
+
+        public String toString() {
+            return decode();
+        }
+
+        // If every byte of the field is decoded to the char with the same value, so the field can
+        // be read without being decoded
+        private boolean isAscii() {
+            if (latin1) {
+                return true;
+            }
+            if (asciiRecord != getIndex()) {
+                ascii = true;
+                for (int i = fieldStarts[column]; i < fieldEnds[column]; i++) {
+                    if (buffer[i] < 0) {
+                        ascii = false;
+                        break;
+                    }
+                }
+                asciiRecord = getIndex();
+            }
+            return ascii;
+        }
+
+        private String decode() {
+            if (decodedRecord != getIndex()) {
+                decoded = getString(column);
+                decodedRecord = getIndex();
+            }
+            return decoded;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.douglasjose.tech.csv;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Scanner which splits the characters read from a <code>Reader</code>.
+ * The content is read into a single reusable buffer, and the fields are split in place.
+ * Runs of plain content are skipped by comparing each character with the first character of the
+ * delimiters only, so the delimiters are only matched where their first character occurs.
+ *
+ * @author Douglas Rodrigues
+ */
+class CharRecordScanner extends RecordScanner {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final char[] textDelimiter;
+    private final char[] fieldSeparator;
+    // Number of characters which must be available to match any delimiter
+    private final int lookahead;
+
+    private char[] buffer = new char[BUFFER_SIZE];
+    // Start of the unread content of the buffer
+    private int position = 0;
+    // End of the valid content of the buffer
+    private int limit = 0;
+    private boolean endOfStream = false;
+    // If a '\n' immediately following the last record ending ('\r') must be skipped
+    private boolean skipLineFeed = false;
+
+    // Boundaries of the fields of the current record in the buffer
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    private int fieldCount = 0;
+    private FieldView[] views = new FieldView[0];
+
+    CharRecordScanner(Reader reader, String fieldSeparator, String textDelimiter) {
+        this.reader = reader;
+        this.textDelimiter = textDelimiter.toCharArray();
+        this.fieldSeparator = fieldSeparator.toCharArray();
+        this.lookahead = Math.max(this.fieldSeparator.length, this.textDelimiter.length * 2);
+    }
+
+    /**
+     * Reads and splits the next record in a single pass. A line terminator only ends the record
+     * when it is not within a text delimiter; otherwise it is part of the field content. Text
+     * delimiters are removed by moving the content backwards in the buffer, so no field is ever
+     * copied elsewhere.
+     */
+    protected boolean scan() throws IOException {
+        fieldCount = 0;
+        // If the current position points to a literal (within text delimiter) or not
+        boolean literal = false;
+        int i = position;
+        // Write position; equals the read position until a text delimiter is removed
+        int w = i;
+        int fieldStart = i;
+        while (true) {
+            if (limit - i < lookahead && !endOfStream) {
+                int shift = fill();
+                i -= shift;
+                w -= shift;
+                fieldStart -= shift;
+                for (int f = 0; f < fieldCount; f++) {
+                    fieldStarts[f] -= shift;
+                    fieldEnds[f] -= shift;
+                }
+                continue;
+            }
+            if (i >= limit) {
+                if (i == position) {
+                    return false;
+                }
+                // Last record of the file, without line terminator
+                if (w > fieldStart) {
+                    addField(fieldStart, w);
+                }
+                position = i;
+                return true;
+            }
+            char c = buffer[i];
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (c == '\n') {
+                    position = ++i;
+                    w = i;
+                    fieldStart = i;
+                    continue;
+                }
+            }
+            int run = skipPlain(i, literal) - i;
+            if (run > 0) {
+                if (w != i) {
+                    System.arraycopy(buffer, i, buffer, w, run);
+                }
+                i += run;
+                w += run;
+                continue;
+            }
+            if (!literal) {
+                if (c == '\n' || c == '\r') {
+                    if (w > fieldStart) {
+                        addField(fieldStart, w);
+                    }
+                    skipLineFeed = c == '\r';
+                    position = i + 1;
+                    return true;
+                }
+                if (startsWith(buffer, limit, fieldSeparator, i)) {
+                    addField(fieldStart, w);
+                    i += fieldSeparator.length;
+                    fieldStart = i;
+                    w = i;
+                    continue;
+                }
+            }
+            if (startsWith(buffer, limit, textDelimiter, i)) {
+                // Text delimiter found; if single, flip the literal flag,
+                // if double and within a literal, means it is part of the content
+                if (literal && startsWith(buffer, limit, textDelimiter, i + textDelimiter.length)) {
+                    System.arraycopy(buffer, i, buffer, w, textDelimiter.length);
+                    w += textDelimiter.length;
+                    i += textDelimiter.length * 2;
+                } else {
+                    literal = !literal;
+                    if (literal) {
+                        countQuotedField();
+                    }
+                    i += textDelimiter.length;
+                }
+            } else {
+                if (w != i) {
+                    buffer[w] = c;
+                }
+                w++;
+                i++;
+            }
+        }
+    }
+
+    public int size() {
+        return fieldCount;
+    }
+
+    public CharSequence get(int column) {
+        if (column < 0) {
+            throw new IndexOutOfBoundsException("Invalid column: " + column);
+        }
+        return column < fieldCount ? view(column) : "";
+    }
+
+    String getString(int column) {
+        return new String(buffer, fieldStarts[column], fieldEnds[column] - fieldStarts[column]);
+    }
+
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Moves the unread content to the beginning of the buffer and reads more data after it,
+     * growing the buffer if a single record does not fit into it.
+     *
+     * @return Number of positions the content was moved backwards
+     * @throws IOException If the data cannot be read
+     */
+    private int fill() throws IOException {
+        int shift = position;
+        int remaining = limit - position;
+        if (remaining == buffer.length) {
+            char[] newBuffer = new char[buffer.length * 2];
+            System.arraycopy(buffer, position, newBuffer, 0, remaining);
+            buffer = newBuffer;
+        } else if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, remaining);
+        }
+        position = 0;
+        limit = remaining;
+        int read = reader.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfStream = true;
+        } else {
+            limit += read;
+        }
+        return shift;
+    }
+
+    /**
+     * Finds the end of a run of characters which cannot start a delimiter, nor end the record.
+     * Within a literal, only the text delimiter ends the run.
+     *
+     * @param i Start of the run
+     * @return Position of the first character after the run
+     */
+    private int skipPlain(int i, boolean literal) {
+        char separator = fieldSeparator[0];
+        char delimiter = textDelimiter[0];
+        while (i < limit) {
+            char c = buffer[i];
+            if (c == delimiter || !literal && (c == separator || c == '\n' || c == '\r')) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == fieldStarts.length) {
+            int[] newStarts = new int[fieldCount * 2];
+            int[] newEnds = new int[fieldCount * 2];
+            System.arraycopy(fieldStarts, 0, newStarts, 0, fieldCount);
+            System.arraycopy(fieldEnds, 0, newEnds, 0, fieldCount);
+            fieldStarts = newStarts;
+            fieldEnds = newEnds;
+        }
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldCount++;
+    }
+
+    /**
+     * Checks for the presence of a char array (<code>pattern</code>) as a subsequence in
+     * <code>buffer[offset, end)</code>.
+     */
+    private static boolean startsWith(char[] buffer, int end, char[] pattern, int offset) {
+        if (offset + pattern.length > end || buffer[offset] != pattern[0]) {
+            return false;
+        }
+        for (int i = 1; i < pattern.length; i++) {
+            if (buffer[offset + i] != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private FieldView view(int column) {
+        if (column >= views.length) {
+            FieldView[] newViews = new FieldView[Math.max(column + 1, views.length * 2)];
+            System.arraycopy(views, 0, newViews, 0, views.length);
+            views = newViews;
+        }
+        FieldView view = views[column];
+        if (view == null) {
+            view = new FieldView(column);
+            views[column] = view;
+        }
+        return view;
+    }
+
+    /**
+     * View of a field of the current record; reused for every record read.
+     */
+    private class FieldView implements CharSequence {
+
+        private final int column;
+
+        FieldView(int column) {
+            this.column = column;
+        }
+
+        public int length() {
+            return fieldEnds[column] - fieldStarts[column];
+        }
+
+        public char charAt(int index) {
+            if (index < 0 || index >= length()) {
+                throw new IndexOutOfBoundsException("Invalid index: " + index);
+            }
+            return buffer[fieldStarts[column] + index];
+        }
+
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length() || start > end) {
+                throw new IndexOutOfBoundsException("Invalid range: [" + start + "," + end + ")");
+            }
+            return new String(buffer, fieldStarts[column] + start, end - start);
+        }
+
+        public String toString() {
+            return getString(column);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.douglasjose.tech.csv;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Index of the rows of a column by their content, used by
+ * {@link com.douglasjose.tech.csv.IndexedCsv}. Hash indexes only support equality lookups;
+ * sorted indexes also support range lookups. Empty fields are not indexed.
+ *
+ * @author Douglas Rodrigues
+ */
+class ColumnIndex {
+
+    private final Map<String, RowSet> entries;
+
+    private ColumnIndex(Map<String, RowSet> entries) {
+        this.entries = entries;
+    }
+
+    static ColumnIndex hash() {
+        return new ColumnIndex(new HashMap<String, RowSet>());
+    }
+
+    static ColumnIndex sorted(Comparator<? super String> comparator) {
+        return new ColumnIndex(new TreeMap<String, RowSet>(comparator));
+    }
+
+    boolean isSorted() {
+        return entries instanceof NavigableMap;
+    }
+
+    /**
+     * @return Order of the values of a sorted index, or <code>null</code> for String order
+     */
+    Comparator<? super String> comparator() {
+        return isSorted() ? ((TreeMap<String, RowSet>) entries).comparator() : null;
+    }
+
+    /**
+     * @return An empty index of the same kind
+     */
+    ColumnIndex emptyCopy() {
+        return isSorted() ? sorted(comparator()) : hash();
+    }
+
+    void add(String value, int row) {
+        if (value.length() == 0) {
+            return;
+        }
+        RowSet rows = entries.get(value);
+        if (rows == null) {
+            rows = new RowSet();
+            entries.put(value, rows);
+        }
+        rows.add(row);
+    }
+
+    void remove(String value, int row) {
+        if (value.length() == 0) {
+            return;
+        }
+        RowSet rows = entries.get(value);
+        if (rows != null && rows.remove(row) && rows.size == 0) {
+            entries.remove(value);
+        }
+    }
+
+    int first(String value) {
+        RowSet rows = entries.get(value);
+        return rows != null ? rows.rows[0] : -1;
+    }
+
+    int[] find(String value) {
+        RowSet rows = entries.get(value);
+        return rows != null ? rows.toArray() : new int[0];
+    }
+
+    int[] findRange(String from, String to) {
+        NavigableMap<String, RowSet> range = ((NavigableMap<String, RowSet>) entries)
+                .subMap(from, true, to, true);
+        int size = 0;
+        for (RowSet rows : range.values()) {
+            size += rows.size;
+        }
+        int[] result = new int[size];
+        int offset = 0;
+        for (RowSet rows : range.values()) {
+            System.arraycopy(rows.rows, 0, result, offset, rows.size);
+            offset += rows.size;
+        }
+        return result;
+    }
+
+    /**
+     * Ascending set of row numbers. Rows are usually added in ascending order, which only
+     * appends to the array.
+     */
+    private static class RowSet {
+
+        int[] rows = new int[1];
+        int size = 0;
+
+        void add(int row) {
+            if (size > 0 && row <= rows[size - 1]) {
+                int position = Arrays.binarySearch(rows, 0, size, row);
+                if (position >= 0) {
+                    return;
+                }
+                insert(-position - 1, row);
+            } else {
+                insert(size, row);
+            }
+        }
+
+        boolean remove(int row) {
+            int position = Arrays.binarySearch(rows, 0, size, row);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(rows, position + 1, rows, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(rows, size);
+        }
+
+        private void insert(int position, int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size + (size >> 1) + 1);
+            }
+            System.arraycopy(rows, position, rows, position + 1, size - position);
+            rows[position] = row;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.douglasjose.tech.csv;
+
+/**
+ * Types of the columns of a {@link com.douglasjose.tech.csv.CsvSchema}.
+ *
+ * @author Douglas Rodrigues
+ */
+public enum ColumnType {
+
+    /**
+     * 32-bit signed integers, such as <code>-42</code>.
+     */
+    INT,
+
+    /**
+     * 64-bit signed integers, such as <code>1234567890123</code>.
+     */
+    LONG,
+
+    /**
+     * Double precision floating point numbers, such as <code>3.14</code> or <code>1e-3</code>.
+     */
+    DOUBLE,
+
+    /**
+     * <code>true</code> or <code>false</code>, ignoring case.
+     */
+    BOOLEAN,
+
+    /**
+     * ISO 8601 dates in UTC, such as <code>2014-03-01</code> or
+     * <code>2014-03-01T12:30:00.250Z</code>.
+     */
+    DATE,
+
+    /**
+     * Any content, stored as it is.
+     */
+    STRING,
+
+    /**
+     * Any content, where few distinct values are repeated over many rows (such as countries or
+     * currencies). Each distinct value is stored once per column, and the rows only hold a code
+     * referring to it.
+     */
+    DICTIONARY
+}
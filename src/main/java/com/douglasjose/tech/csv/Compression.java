@@ -0,0 +1,116 @@
+package com.douglasjose.tech.csv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression of the files written by a {@link com.douglasjose.tech.csv.CsvParser}.
+ * Compressed files are detected when they are read, whatever the compression of the parser.
+ *
+ * @author Douglas Rodrigues
+ */
+public enum Compression {
+
+    /**
+     * Files are written as plain text.
+     */
+    NONE,
+
+    /**
+     * Files are written in the gzip format (<code>.csv.gz</code>).
+     */
+    GZIP;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+
+    /**
+     * Wraps a stream so that the content written to it is compressed.
+     *
+     * @param os Stream the compressed content is written to
+     * @return Stream to write the uncompressed content to
+     * @throws IOException If the compressed stream cannot be started
+     */
+    OutputStream compress(OutputStream os) throws IOException {
+        return this == GZIP ? new GZIPOutputStream(os, BUFFER_SIZE) : os;
+    }
+
+    /**
+     * Wraps a stream so that its content is decompressed, if it is in the gzip format.
+     * The format is detected on the first read, and compressed content is decompressed by a
+     * separate thread, ahead of the reads.
+     *
+     * @param is Stream to read from
+     * @return Stream of the uncompressed content
+     */
+    static InputStream decompress(final InputStream is) {
+        return new InputStream() {
+
+            private InputStream source;
+
+            private InputStream source() throws IOException {
+                if (source == null) {
+                    source = detect(is);
+                }
+                return source;
+            }
+
+            public int read() throws IOException {
+                return source().read();
+            }
+
+            public int read(byte[] b, int off, int len) throws IOException {
+                return source().read(b, off, len);
+            }
+
+            public int available() throws IOException {
+                return source == null ? 0 : source.available();
+            }
+
+            public void close() throws IOException {
+                if (source != null) {
+                    source.close();
+                }
+                is.close();
+            }
+        };
+    }
+
+    private static InputStream detect(InputStream is) throws IOException {
+        PushbackInputStream input = new PushbackInputStream(is, 2);
+        int first = input.read();
+        int second = first < 0 ? -1 : input.read();
+        if (second >= 0) {
+            input.unread(second);
+        }
+        if (first >= 0) {
+            input.unread(first);
+        }
+        if (first == GZIP_MAGIC_1 && second == GZIP_MAGIC_2) {
+            return new ReadAheadInputStream(new GZIPInputStream(input, BUFFER_SIZE));
+        }
+        return input;
+    }
+
+    /**
+     * @param channel File to check, from its current position
+     * @return If the file is in the gzip format
+     * @throws IOException If the file cannot be read
+     */
+    static boolean isCompressed(FileChannel channel) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(2);
+        long position = channel.position();
+        while (magic.hasRemaining() && channel.read(magic, position + magic.position()) > 0) {
+            // Positional reads keep the position of the channel
+        }
+        return magic.position() == 2 && (magic.get(0) & 0xff) == GZIP_MAGIC_1
+                && (magic.get(1) & 0xff) == GZIP_MAGIC_2;
+    }
+}
@@ -0,0 +1,464 @@
+package com.douglasjose.tech.csv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Thread-safe implementation of the {@link com.douglasjose.tech.csv.Csv} interface where reads
+ * never block.
+ * Every row is an immutable array, replaced by a modified copy on each write (copy-on-write),
+ * and the dimensions of the data structure are published together with the rows as a volatile
+ * snapshot. Readers only follow the latest snapshot, while writers are serialized among
+ * themselves.
+ * Loading a file builds a complete new snapshot without publishing it, and swaps it in at once,
+ * so readers see either the old content or the new one.
+ * <p>
+ * Best suited for data which is read much more often than it is written, such as reference
+ * tables shared between many threads.
+ *
+ * @author Douglas Rodrigues
+ */
+public class ConcurrentCsv extends AbstractCsv {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Object writeLock = new Object();
+    // Staging instances are only used by the loading thread, so rows are modified in place
+    private final boolean staging;
+
+    // State only accessed by writers, holding writeLock
+    private AtomicReferenceArray<String[]> data;
+    private int[] rowCounts;
+    private int[] columnCounts;
+    private int rows;
+    private int columns;
+
+    private volatile Snapshot snapshot;
+
+    protected ConcurrentCsv(CsvParser parser) {
+        this(parser, false);
+    }
+
+    private ConcurrentCsv(CsvParser parser, boolean staging) {
+        super(parser);
+        this.staging = staging;
+        clear();
+    }
+
+    /**
+     * Add the content to the position [row, column] of the file.
+     * Silently replaces existing content.
+     *
+     * @param row Zero-based row index
+     * @param column Zero-based column index
+     * @param content String to be stored
+     */
+    public void add(int row, int column, String content) {
+        if (row < 0 || column < 0) {
+            throw new IndexOutOfBoundsException("Invalid CSV position: [" + row + ","
+                    + column + "]");
+        }
+        synchronized (writeLock) {
+            if (row >= data.length()) {
+                growRows(row + 1);
+            }
+            if (column >= columnCounts.length) {
+                columnCounts = grow(columnCounts, column + 1);
+            }
+            String[] rowData = data.get(row);
+            if (rowData == null || column >= rowData.length || rowData[column] == null) {
+                rowCounts[row]++;
+                columnCounts[column]++;
+            }
+            String[] newRowData;
+            if (staging && rowData != null && column < rowData.length) {
+                newRowData = rowData;
+            } else {
+                int length = rowData == null ? column + 1 : Math.max(rowData.length, column + 1);
+                if (staging) {
+                    // Room for the following fields of the row, which are likely to be added next
+                    length = Math.max(length, columns);
+                }
+                newRowData = new String[length];
+                if (rowData != null) {
+                    System.arraycopy(rowData, 0, newRowData, 0, rowData.length);
+                }
+            }
+            newRowData[column] = content != null ? content : "";
+            data.set(row, newRowData);
+            rows = Math.max(rows, row + 1);
+            columns = Math.max(columns, column + 1);
+            publish();
+        }
+    }
+
+    /**
+     * Adds content to the first positions of a row, replacing the row only once, so readers see
+     * either none or all of the new fields.
+     * Silently replaces existing content.
+     *
+     * @param row Zero-based row index
+     * @param fields Content to be stored in the columns 0 to <code>fields.length - 1</code>
+     */
+    public void addRow(int row, String... fields) {
+        if (row < 0) {
+            throw new IndexOutOfBoundsException("Invalid CSV row: " + row);
+        }
+        if (fields.length == 0) {
+            return;
+        }
+        synchronized (writeLock) {
+            if (row >= data.length()) {
+                growRows(row + 1);
+            }
+            if (fields.length > columnCounts.length) {
+                columnCounts = grow(columnCounts, fields.length);
+            }
+            String[] rowData = data.get(row);
+            String[] newRowData;
+            if (staging && rowData != null && fields.length <= rowData.length) {
+                newRowData = rowData;
+            } else {
+                newRowData = new String[Math.max(rowData == null ? 0 : rowData.length,
+                        fields.length)];
+                if (rowData != null) {
+                    System.arraycopy(rowData, 0, newRowData, 0, rowData.length);
+                }
+            }
+            for (int column = 0; column < fields.length; column++) {
+                if (newRowData[column] == null) {
+                    rowCounts[row]++;
+                    columnCounts[column]++;
+                }
+                newRowData[column] = fields[column] != null ? fields[column] : "";
+            }
+            data.set(row, newRowData);
+            rows = Math.max(rows, row + 1);
+            columns = Math.max(columns, fields.length);
+            publish();
+        }
+    }
+
+    /**
+     * Reads the content of all the positions of a row, without blocking.
+     *
+     * @param row Zero-based row index
+     * @return Row with one field per column of the file
+     */
+    public Row getRow(int row) {
+        return current().getRow(row);
+    }
+
+    /**
+     * Iterates over the rows of the file as they were when this method was called, without
+     * blocking. Later modifications are not seen by the iterator. The references to the rows are
+     * copied when this method is called, which takes time proportional to the number of rows.
+     *
+     * @return Iterator over the rows
+     */
+    public Iterator<Row> iterator() {
+        return current().freeze().iterator();
+    }
+
+    /**
+     * Splits the rows of the file as they were when this method was called. Later modifications
+     * are not seen by the spliterator. The references to the rows are copied when this method is
+     * called, which takes time proportional to the number of rows.
+     *
+     * @return Sized spliterator over the rows
+     */
+    public Spliterator<Row> spliterator() {
+        return current().freeze().spliterator();
+    }
+
+    /**
+     * Streams the rows of the file as they were when this method was called, so the file may be
+     * modified while the stream is processed without the stream seeing the changes.
+     *
+     * @return Sequential stream of the rows
+     */
+    public Stream<Row> rows() {
+        return current().freeze().rows();
+    }
+
+    /**
+     * Reads the content in the position [row, column] of the file, without blocking. Return the
+     * empty String if there is no content in the given position.
+     * @param row Zero-based row index
+     * @param column Zero-based column index
+     * @return The content at a given position.
+     */
+    public String get(int row, int column) {
+        return current().get(row, column);
+    }
+
+    /**
+     * Reads the content in the position [row, column] of the file, resolving the column through
+     * the header, without blocking.
+     *
+     * @param row Zero-based row index
+     * @param column Column name
+     * @return The content at a given position.
+     */
+    public String get(int row, String column) {
+        return current().get(row, column);
+    }
+
+    /**
+     * @return Names of the columns, or <code>null</code> if the columns are not named
+     */
+    public Header getHeader() {
+        return current().getHeader();
+    }
+
+    /**
+     * @param header Names of the columns, or <code>null</code> to remove the header
+     */
+    public void setHeader(Header header) {
+        synchronized (writeLock) {
+            super.setHeader(header);
+            publish();
+        }
+    }
+
+    /**
+     * Removes the content from the position [row, column].
+     * @param row Zero-based row index
+     * @param column Zero-based column index
+     * @return If the operation modified the data structure
+     */
+    public boolean remove(int row, int column) {
+        synchronized (writeLock) {
+            if (row < 0 || column < 0 || row >= data.length()) {
+                return false;
+            }
+            String[] rowData = data.get(row);
+            if (rowData == null || column >= rowData.length || rowData[column] == null) {
+                return false;
+            }
+            String[] newRowData = staging ? rowData : rowData.clone();
+            newRowData[column] = null;
+            data.set(row, newRowData);
+            rowCounts[row]--;
+            columnCounts[column]--;
+            while (rows > 0 && rowCounts[rows - 1] == 0) {
+                rows--;
+            }
+            while (columns > 0 && columnCounts[columns - 1] == 0) {
+                columns--;
+            }
+            publish();
+            return true;
+        }
+    }
+
+    /**
+     * Reads a CSV file from a stream, replacing the existing content once the whole file has been
+     * read. Readers are never blocked during the operation.
+     *
+     * @param is Stream to read the CSV file from
+     * @throws IOException If the data could not be read from the stream
+     */
+    public void load(InputStream is) throws IOException {
+        ConcurrentCsv loaded = new ConcurrentCsv(getParser(), true);
+        getParser().loadFile(loaded, is);
+        replaceWith(loaded);
+    }
+
+    /**
+     * Reads a CSV file from the file system, replacing the existing content once the whole file
+     * has been read. Readers are never blocked during the operation.
+     *
+     * @param path Location of the CSV file
+     * @throws IOException If the data could not be read from the file
+     */
+    public void load(Path path) throws IOException {
+        ConcurrentCsv loaded = new ConcurrentCsv(getParser(), true);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            getParser().loadFile(loaded, channel);
+        } finally {
+            channel.close();
+        }
+        replaceWith(loaded);
+    }
+
+    /**
+     * Writes the CSV file to a stream, without blocking writers. The dimensions of the file are
+     * the ones at the time of the call; rows modified concurrently may be written either with
+     * their old or with their new content.
+     *
+     * @param os Stream to write the CSV file to
+     * @throws IOException If the data could not be written to the stream
+     */
+    public void store(OutputStream os) throws IOException {
+        getParser().writeFile(current(), os);
+    }
+
+    protected void clear() {
+        synchronized (writeLock) {
+            data = new AtomicReferenceArray<String[]>(INITIAL_CAPACITY);
+            rowCounts = new int[INITIAL_CAPACITY];
+            columnCounts = new int[0];
+            rows = 0;
+            columns = 0;
+            publish();
+        }
+    }
+
+    /**
+     * @return Number of columns in the file
+     */
+    public int getColumns() {
+        return current().getColumns();
+    }
+
+    /**
+     * @return Number of lines in the file
+     */
+    public int getRows() {
+        return current().getRows();
+    }
+
+    private void replaceWith(ConcurrentCsv loaded) {
+        // The staging instance is discarded, so its rows are never modified in place again
+        synchronized (writeLock) {
+            data = loaded.data;
+            rowCounts = loaded.rowCounts;
+            columnCounts = loaded.columnCounts;
+            rows = loaded.rows;
+            columns = loaded.columns;
+            super.setHeader(loaded.getHeader());
+            publish();
+        }
+    }
+
+    private Snapshot current() {
+        // Staging instances do not publish their changes
+        return staging ? new Snapshot(getParser(), super.getHeader(), data, rows, columns)
+                : snapshot;
+    }
+
+    private void publish() {
+        if (!staging) {
+            snapshot = new Snapshot(getParser(), super.getHeader(), data, rows, columns);
+        }
+    }
+
+    private void growRows(int minRows) {
+        int capacity = newCapacity(data.length(), minRows);
+        AtomicReferenceArray<String[]> newData = new AtomicReferenceArray<String[]>(capacity);
+        for (int i = 0; i < rows; i++) {
+            newData.set(i, data.get(i));
+        }
+        data = newData;
+        rowCounts = grow(rowCounts, capacity);
+    }
+
+    private static int[] grow(int[] array, int minLength) {
+        int[] newArray = new int[newCapacity(array.length, minLength)];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        return newArray;
+    }
+
+    private static int newCapacity(int length, int minLength) {
+        return Math.max(minLength, length + (length >> 1) + 1);
+    }
+
+    /**
+     * Immutable view of the rows and dimensions of the data structure at a given time.
+     */
+    private static class Snapshot extends AbstractCsv {
+
+        private final AtomicReferenceArray<String[]> data;
+        private final int rows;
+        private final int columns;
+
+        Snapshot(CsvParser parser, Header header, AtomicReferenceArray<String[]> data, int rows,
+                 int columns) {
+            super(parser);
+            super.setHeader(header);
+            this.data = data;
+            this.rows = rows;
+            this.columns = columns;
+        }
+
+        public String get(int row, int column) {
+            if (row < 0 || column < 0 || row >= rows || column >= columns) {
+                throw new IndexOutOfBoundsException("Invalid CSV position: [" + row + ","
+                        + column + "]");
+            }
+            String[] rowData = data.get(row);
+            if (rowData != null && column < rowData.length) {
+                String value = rowData[column];
+                if (value != null) {
+                    return value;
+                }
+            }
+            return "";
+        }
+
+        /**
+         * Copies the references to the rows, so that rows replaced afterwards by a writer are not
+         * seen. Rows are never modified in place once published.
+         *
+         * @return Snapshot independent from later writes
+         */
+        Snapshot freeze() {
+            AtomicReferenceArray<String[]> rowsData = new AtomicReferenceArray<String[]>(rows);
+            for (int i = 0; i < rows; i++) {
+                rowsData.set(i, data.get(i));
+            }
+            return new Snapshot(getParser(), getHeader(), rowsData, rows, columns);
+        }
+
+        public Row getRow(int row) {
+            if (row < 0 || row >= rows) {
+                throw new IndexOutOfBoundsException("Invalid CSV row: " + row);
+            }
+            String[] fields = new String[columns];
+            String[] rowData = data.get(row);
+            for (int column = 0; column < columns; column++) {
+                String value = rowData != null && column < rowData.length ? rowData[column] : null;
+                fields[column] = value != null ? value : "";
+            }
+            return new Row(row, fields);
+        }
+
+        public int getColumns() {
+            return columns;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public void add(int row, int column, String content) {
+            throw new UnsupportedOperationException("Snapshots are read-only");
+        }
+
+        public boolean remove(int row, int column) {
+            throw new UnsupportedOperationException("Snapshots are read-only");
+        }
+
+        public void setHeader(Header header) {
+            throw new UnsupportedOperationException("Snapshots are read-only");
+        }
+
+        public boolean removeRange(int fromRow, int fromColumn, int toRow, int toColumn) {
+            throw new UnsupportedOperationException("Snapshots are read-only");
+        }
+
+        protected void clear() {
+            throw new UnsupportedOperationException("Snapshots are read-only");
+        }
+    }
+}
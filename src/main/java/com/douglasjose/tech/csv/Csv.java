@@ -3,14 +3,26 @@ package com.douglasjose.tech.csv;
 import java.io.InputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Data structure to represent a CSV (comma separated values) file as a matrix in memory.
  * The data in the structure is addressed through indexes in the form <code>(row, column)</code>.
+ * Whole rows can also be added and read at once, which is cheaper than addressing each of their
+ * positions.
+ * <p>
+ * Only the positional methods have to be implemented. The other methods have default
+ * implementations built on them, which implementations may override with faster ones.
  *
  * @author Douglas Rodrigues
  */
-public interface Csv {
+public interface Csv extends Iterable<Row> {
 
     /**
      * Add content to a indexed position in the matrix.
@@ -31,6 +43,137 @@ public interface Csv {
      */
     String get(int row, int column);
 
+    /**
+     * Adds content to the first positions of a row, one field per column.
+     * The default implementation adds one field at a time.
+     *
+     * @param row Row index
+     * @param fields Content to be stored in the columns 0 to <code>fields.length - 1</code>
+     */
+    default void addRow(int row, String... fields) {
+        for (int column = 0; column < fields.length; column++) {
+            add(row, column, fields[column]);
+        }
+    }
+
+    /**
+     * Retrieves the content of all the positions of a row.
+     * The default implementation reads one position at a time.
+     *
+     * @param row Row index
+     * @return Row with one field per column of the matrix
+     * @throws IndexOutOfBoundsException If the row is not within the matrix
+     */
+    default Row getRow(int row) {
+        if (row < 0 || row >= getRows()) {
+            throw new IndexOutOfBoundsException("Invalid CSV row: " + row);
+        }
+        String[] fields = new String[getColumns()];
+        for (int column = 0; column < fields.length; column++) {
+            fields[column] = get(row, column);
+        }
+        return new Row(row, fields);
+    }
+
+    /**
+     * Iterates over the rows of the matrix, from the first to the last one.
+     * The default implementation reads the rows through {@link #getRow(int)}, and does not
+     * support removal.
+     *
+     * @return Iterator over the rows
+     */
+    default Iterator<Row> iterator() {
+        return new Iterator<Row>() {
+
+            private int next = 0;
+
+            public boolean hasNext() {
+                return next < getRows();
+            }
+
+            public Row next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return getRow(next++);
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Splits the rows of the matrix in ranges of row indexes, for parallel processing.
+     * The spliterator is sized, and so are the spliterators split from it.
+     * The default implementation reads the rows through {@link #getRow(int)}; the number of rows
+     * is fixed when this method is called.
+     *
+     * @return Spliterator over the rows
+     */
+    default Spliterator<Row> spliterator() {
+        return new RowSpliterator(this, 0, getRows());
+    }
+
+    /**
+     * Streams the rows of the matrix, from the first to the last one. Parallel streams split the
+     * rows evenly between the threads.
+     * The matrix must not be modified while the stream is processed.
+     *
+     * @return Sequential stream of the rows
+     */
+    default Stream<Row> rows() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Retrieves the content from a given position, addressing the column by its name in the
+     * header.
+     * Returns the empty string if there is no content in the specified position.
+     *
+     * @param row Row index
+     * @param column Column name
+     * @return Stored content
+     * @throws IllegalStateException If the matrix has no header
+     * @throws IllegalArgumentException If the header has no column with the given name
+     */
+    default String get(int row, String column) {
+        Header header = getHeader();
+        if (header == null) {
+            throw new IllegalStateException("The CSV has no header");
+        }
+        int index = header.indexOf(column);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown column: [" + column + "]");
+        }
+        return get(row, index);
+    }
+
+    /**
+     * Retrieves the names of the columns, which are not part of the rows of the matrix.
+     * The default implementation never has a header.
+     *
+     * @return The header, or <code>null</code> if the columns are not named
+     */
+    default Header getHeader() {
+        return null;
+    }
+
+    /**
+     * Names the columns of the matrix. The header is written as the first row of the file, and
+     * replaced (or discarded) when a file is loaded.
+     * The default implementation does not support headers.
+     *
+     * @param header Names of the columns, or <code>null</code> to remove the header
+     * @throws UnsupportedOperationException If the matrix cannot name its columns
+     */
+    default void setHeader(Header header) {
+        if (header != null) {
+            throw new UnsupportedOperationException("The CSV does not support headers");
+        }
+    }
+
     /**
      * Removes the content from a given position.
      *
@@ -40,6 +183,52 @@ public interface Csv {
      */
     boolean remove(int row, int column);
 
+    /**
+     * Removes the content from all the positions of a row. The following rows are not moved.
+     *
+     * @param row Row index
+     * @return If the data structure has changed after this operation
+     */
+    default boolean removeRow(int row) {
+        return removeRange(row, 0, row + 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Removes the content from all the positions of a column. The following columns are not
+     * moved.
+     *
+     * @param column Column index
+     * @return If the data structure has changed after this operation
+     */
+    default boolean removeColumn(int column) {
+        return removeRange(0, column, Integer.MAX_VALUE, column + 1);
+    }
+
+    /**
+     * Removes the content from all the positions within a range. The positions outside the range
+     * are not moved.
+     *
+     * @param fromRow First row of the range, inclusive
+     * @param fromColumn First column of the range, inclusive
+     * @param toRow Last row of the range, exclusive
+     * @param toColumn Last column of the range, exclusive
+     * @return If the data structure has changed after this operation
+     * @throws IndexOutOfBoundsException If the range starts before the first row or column
+     * @throws IllegalArgumentException If the range ends before it starts
+     */
+    default boolean removeRange(int fromRow, int fromColumn, int toRow, int toColumn) {
+        AbstractCsv.checkRange(fromRow, fromColumn, toRow, toColumn);
+        int lastRow = Math.min(toRow, getRows());
+        int lastColumn = Math.min(toColumn, getColumns());
+        boolean modified = false;
+        for (int row = fromRow; row < lastRow; row++) {
+            for (int column = fromColumn; column < lastColumn; column++) {
+                modified |= remove(row, column);
+            }
+        }
+        return modified;
+    }
+
     /**
      * Loads the file from a stream.
      *
@@ -48,6 +237,22 @@ public interface Csv {
      */
     void load(InputStream is) throws IOException;
 
+    /**
+     * Loads the file from the file system.
+     * The default implementation reads the file as a stream, through {@link #load(InputStream)}.
+     *
+     * @param path Location of the file
+     * @throws IOException If the data could not be read from the file
+     */
+    default void load(Path path) throws IOException {
+        InputStream is = Files.newInputStream(path);
+        try {
+            load(is);
+        } finally {
+            is.close();
+        }
+    }
+
     /**
      * Writes the file to a stream.
      *
@@ -3,6 +3,16 @@ package com.douglasjose.tech.csv;
 import java.io.InputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
 
 /**
  * Utility class used to create {@link com.douglasjose.tech.csv.Csv} implementations based in a
@@ -24,6 +34,52 @@ public class CsvFactory {
         return new BasicCsv(new CustomDelimitersCsvParser(",", "\""));
     }
 
+    /**
+     * Creates a new Microsoft Office/LibreOffice/OpenOffice compliant Csv data structure, which
+     * reads and writes files in a given encoding.
+     *
+     * @param charset Encoding of the files
+     * @return Csv implementation
+     */
+    public static Csv createOfficeCsv(Charset charset) {
+        return new BasicCsv(new CustomDelimitersCsvParser(",", "\"", charset));
+    }
+
+    /**
+     * Creates a new Microsoft Office/LibreOffice/OpenOffice compliant Csv data structure, which
+     * may take the names of the columns from the first row of the loaded files.
+     *
+     * @param headerMode How the first row of the loaded files is handled
+     * @return Csv implementation
+     */
+    public static Csv createOfficeCsv(HeaderMode headerMode) {
+        return new BasicCsv(new CustomDelimitersCsvParser(",", "\"").withHeaderMode(headerMode));
+    }
+
+    /**
+     * Creates a new Microsoft Office/LibreOffice/OpenOffice compliant Csv data structure, which
+     * writes compressed files. Compressed files are read by every Csv, whatever its compression.
+     *
+     * @param compression Compression of the written files
+     * @return Csv implementation
+     */
+    public static Csv createOfficeCsv(Compression compression) {
+        return new BasicCsv(new CustomDelimitersCsvParser(",", "\"").withCompression(compression));
+    }
+
+    /**
+     * Creates a read-only Csv which serves binary snapshots written by a
+     * {@link com.douglasjose.tech.csv.SnapshotCsvParser}. Snapshots loaded from a file are memory
+     * mapped and decoded as they are read.
+     * Recommended for large reference files which are reloaded often.
+     *
+     * @return Snapshot Csv implementation
+     * @see com.douglasjose.tech.csv.SnapshotCsv
+     */
+    public static Csv createSnapshotCsv() {
+        return new SnapshotCsv(new SnapshotCsvParser());
+    }
+
     /**
      * Creates a Csv with customized delimiters.
      *
@@ -34,9 +90,331 @@ public class CsvFactory {
     public static Csv createCsvWithCustomDelimiters(String fieldSeparator, String textDelimiter) {
         return new BasicCsv(new CustomDelimitersCsvParser(fieldSeparator, textDelimiter));
     }
+
+    /**
+     * Creates a Csv with customized delimiters, which reads and writes files in a given encoding.
+     *
+     * @param fieldSeparator String used to separate fields in the file
+     * @param textDelimiter String used as text delimiter
+     * @param charset Encoding of the files
+     * @return Customized Csv implementation
+     */
+    public static Csv createCsvWithCustomDelimiters(String fieldSeparator, String textDelimiter,
+                                                    Charset charset) {
+        return new BasicCsv(new CustomDelimitersCsvParser(fieldSeparator, textDelimiter, charset));
+    }
+
+    /**
+     * Creates a Csv persisted by a given parser.
+     *
+     * @param parser Parser used to read and write the files
+     * @return Csv implementation
+     */
+    public static Csv createCsv(CsvParser parser) {
+        return new BasicCsv(parser);
+    }
+
+    /**
+     * Creates a Csv persisted by a given parser, stored in column oriented arrays.
+     * Recommended for large files where most of the positions are filled.
+     *
+     * @param parser Parser used to read and write the files
+     * @return Dense Csv implementation
+     */
+    public static Csv createDenseCsv(CsvParser parser) {
+        return new DenseCsv(parser);
+    }
+
+    /**
+     * Creates a new Microsoft Office/LibreOffice/OpenOffice compliant Csv data structure, stored
+     * in column oriented arrays.
+     * Recommended for large files where most of the positions are filled.
+     *
+     * @return Dense Csv implementation
+     */
+    public static Csv createOfficeDenseCsv() {
+        return new DenseCsv(new CustomDelimitersCsvParser(",", "\""));
+    }
+
+    /**
+     * Creates a Csv with customized delimiters, stored in column oriented arrays.
+     * Recommended for large files where most of the positions are filled.
+     *
+     * @param fieldSeparator String used to separate fields in the file
+     * @param textDelimiter String used as text delimiter
+     * @return Customized dense Csv implementation
+     */
+    public static Csv createDenseCsvWithCustomDelimiters(String fieldSeparator, String textDelimiter) {
+        return new DenseCsv(new CustomDelimitersCsvParser(fieldSeparator, textDelimiter));
+    }
+
+    /**
+     * Creates a new Microsoft Office/LibreOffice/OpenOffice compliant Csv data structure, which
+     * stores each column in the type declared by a schema.
+     * Recommended for large numeric files.
+     *
+     * @param schema Types of the columns of the file
+     * @return Typed Csv implementation
+     * @see com.douglasjose.tech.csv.TypedCsv
+     */
+    public static TypedCsv createOfficeTypedCsv(CsvSchema schema) {
+        return new TypedCsv(new CustomDelimitersCsvParser(",", "\""), schema);
+    }
+
+    /**
+     * Creates a Csv persisted by a given parser, which stores each column in the type declared by
+     * a schema.
+     * Recommended for large numeric files.
+     *
+     * @param parser Parser used to read and write the files
+     * @param schema Types of the columns of the file
+     * @return Typed Csv implementation
+     * @see com.douglasjose.tech.csv.TypedCsv
+     */
+    public static TypedCsv createTypedCsv(CsvParser parser, CsvSchema schema) {
+        return new TypedCsv(parser, schema);
+    }
+
+    /**
+     * Creates a new Microsoft Office/LibreOffice/OpenOffice compliant Csv data structure which
+     * can be shared between threads. Reads never block, and loading a file replaces the content
+     * at once.
+     * Recommended over {@link #synchronizedCsv(Csv)} for data read by many threads.
+     *
+     * @return Concurrent Csv implementation
+     * @see com.douglasjose.tech.csv.ConcurrentCsv
+     */
+    public static Csv createConcurrentOfficeCsv() {
+        return new ConcurrentCsv(new CustomDelimitersCsvParser(",", "\""));
+    }
+
+    /**
+     * Creates a Csv persisted by a given parser, which can be shared between threads. Reads never
+     * block, and loading a file replaces the content at once.
+     *
+     * @param parser Parser used to read and write the files
+     * @return Concurrent Csv implementation
+     * @see com.douglasjose.tech.csv.ConcurrentCsv
+     */
+    public static Csv createConcurrentCsv(CsvParser parser) {
+        return new ConcurrentCsv(parser);
+    }
+
+    /**
+     * Creates a streaming reader for a Microsoft Office/LibreOffice/OpenOffice compliant file.
+     *
+     * @param is Stream to read the CSV file from
+     * @return Row by row reader
+     */
+    public static CsvReader createOfficeReader(InputStream is) {
+        return new CustomDelimitersCsvParser(",", "\"").createReader(is);
+    }
+
+    /**
+     * Creates a streaming reader for a file with customized delimiters.
+     *
+     * @param is Stream to read the CSV file from
+     * @param fieldSeparator String used to separate fields in the file
+     * @param textDelimiter String used as text delimiter
+     * @return Row by row reader
+     */
+    public static CsvReader createReaderWithCustomDelimiters(InputStream is, String fieldSeparator,
+                                                             String textDelimiter) {
+        return new CustomDelimitersCsvParser(fieldSeparator, textDelimiter).createReader(is);
+    }
+
+    /**
+     * Creates a publisher of the rows of a Microsoft Office/LibreOffice/OpenOffice compliant file,
+     * which only reads the rows requested by its subscriber.
+     *
+     * @param is Stream to read the CSV file from
+     * @param executor Executor running the tasks which read and deliver the rows
+     * @return Row publisher
+     * @see com.douglasjose.tech.csv.CsvPublisher
+     */
+    public static CsvPublisher createOfficePublisher(InputStream is, Executor executor) {
+        return new CsvPublisher(createOfficeReader(is), executor);
+    }
+
+    /**
+     * Loads a file into a Csv on an executor, without blocking the calling thread.
+     * The returned future completes with the Csv once the file has been loaded, or with the
+     * <code>IOException</code> which prevented it. If the executor rejects the load, the future
+     * completes with the <code>RejectedExecutionException</code>.
+     *
+     * @param csv Destination data structure
+     * @param path Location of the CSV file
+     * @param executor Executor running the load, such as a virtual thread per task executor
+     * @return Future of the loaded Csv
+     */
+    public static CompletableFuture<Csv> loadAsync(final Csv csv, final Path path,
+                                                   Executor executor) {
+        return execute(csv, new Task() {
+            public void run() throws IOException {
+                csv.load(path);
+            }
+        }, executor);
+    }
+
+    /**
+     * Loads a stream into a Csv on an executor, without blocking the calling thread.
+     * The returned future completes with the Csv once the stream has been loaded, or with the
+     * <code>IOException</code> which prevented it. If the executor rejects the load, the future
+     * completes with the <code>RejectedExecutionException</code>.
+     *
+     * @param csv Destination data structure
+     * @param is Stream to read the CSV file from
+     * @param executor Executor running the load, such as a virtual thread per task executor
+     * @return Future of the loaded Csv
+     */
+    public static CompletableFuture<Csv> loadAsync(final Csv csv, final InputStream is,
+                                                   Executor executor) {
+        return execute(csv, new Task() {
+            public void run() throws IOException {
+                csv.load(is);
+            }
+        }, executor);
+    }
+
+    /**
+     * Writes a Csv to a stream on an executor, without blocking the calling thread.
+     * The returned future completes once the file has been written, or with the
+     * <code>IOException</code> which prevented it. If the executor rejects the write, the future
+     * completes with the <code>RejectedExecutionException</code>.
+     *
+     * @param csv Data structure to be written
+     * @param os Stream to write the CSV file to
+     * @param executor Executor running the write, such as a virtual thread per task executor
+     * @return Future of the written Csv
+     */
+    public static CompletableFuture<Csv> storeAsync(final Csv csv, final OutputStream os,
+                                                    Executor executor) {
+        return execute(csv, new Task() {
+            public void run() throws IOException {
+                csv.store(os);
+            }
+        }, executor);
+    }
+
+    /**
+     * Loads a file into a Csv with the given parser on an executor, without blocking the calling
+     * thread. Unlike {@link #loadAsync(Csv, Path, Executor)}, the Csv is not cleared before the
+     * file is loaded.
+     *
+     * @param parser Parser reading the file
+     * @param csv Destination data structure
+     * @param path Location of the CSV file
+     * @param executor Executor running the load, such as a virtual thread per task executor
+     * @return Future of the loaded Csv
+     * @see #loadAsync(Csv, Path, Executor)
+     */
+    public static CompletableFuture<Csv> loadAsync(final CsvParser parser, final Csv csv,
+                                                   final Path path, Executor executor) {
+        return execute(csv, new Task() {
+            public void run() throws IOException {
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+                try {
+                    parser.loadFile(csv, channel);
+                } finally {
+                    channel.close();
+                }
+            }
+        }, executor);
+    }
+
+    /**
+     * Loads a stream into a Csv with the given parser on an executor, without blocking the
+     * calling thread. Unlike {@link #loadAsync(Csv, InputStream, Executor)}, the Csv is not
+     * cleared before the stream is loaded.
+     *
+     * @param parser Parser reading the stream
+     * @param csv Destination data structure
+     * @param is Stream to read the CSV file from
+     * @param executor Executor running the load, such as a virtual thread per task executor
+     * @return Future of the loaded Csv
+     * @see #loadAsync(Csv, InputStream, Executor)
+     */
+    public static CompletableFuture<Csv> loadAsync(final CsvParser parser, final Csv csv,
+                                                   final InputStream is, Executor executor) {
+        return execute(csv, new Task() {
+            public void run() throws IOException {
+                parser.loadFile(csv, is);
+            }
+        }, executor);
+    }
+
+    /**
+     * Writes a Csv to a stream with the given parser on an executor, without blocking the calling
+     * thread.
+     *
+     * @param parser Parser writing the file
+     * @param csv Data structure to be written
+     * @param os Stream to write the CSV file to
+     * @param executor Executor running the write, such as a virtual thread per task executor
+     * @return Future of the written Csv
+     * @see #storeAsync(Csv, OutputStream, Executor)
+     */
+    public static CompletableFuture<Csv> storeAsync(final CsvParser parser, final Csv csv,
+                                                    final OutputStream os, Executor executor) {
+        return execute(csv, new Task() {
+            public void run() throws IOException {
+                parser.writeFile(csv, os);
+            }
+        }, executor);
+    }
+
+    private static CompletableFuture<Csv> execute(final Csv csv, final Task task,
+                                                  Executor executor) {
+        final CompletableFuture<Csv> future = new CompletableFuture<Csv>();
+        try {
+            executor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        task.run();
+                        future.complete(csv);
+                    } catch (Throwable e) {
+                        future.completeExceptionally(e);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private interface Task {
+        void run() throws IOException;
+    }
+
+    /**
+     * Creates a streaming writer for a Microsoft Office/LibreOffice/OpenOffice compliant file.
+     *
+     * @param os Stream to write the CSV file to
+     * @return Row by row writer
+     */
+    public static CsvWriter createOfficeWriter(OutputStream os) {
+        return new CustomDelimitersCsvParser(",", "\"").createWriter(os);
+    }
+
+    /**
+     * Creates a streaming writer for a file with customized delimiters.
+     *
+     * @param os Stream to write the CSV file to
+     * @param fieldSeparator String used to separate fields in the file
+     * @param textDelimiter String used as text delimiter
+     * @return Row by row writer
+     */
+    public static CsvWriter createWriterWithCustomDelimiters(OutputStream os, String fieldSeparator,
+                                                             String textDelimiter) {
+        return new CustomDelimitersCsvParser(fieldSeparator, textDelimiter).createWriter(os);
+    }
+
     /**
      * Creates a synchronized (thread-safe) <code>Csv</code> implementation, backed by the provided
      * <code>Csv</code> object.
+     * Iterating or streaming over the rows is not synchronized: the user must synchronize on the
+     * returned <code>Csv</code> while iterating.
      *
      * @param csv The data structure to be wrapped by the synchronized <code>Csv</code>
      * @return A thread-safe <code>Csv</code>
@@ -45,6 +423,18 @@ public class CsvFactory {
         return new SynchronizedCsv(csv);
     }
 
+    /**
+     * Creates a <code>Csv</code> which can index the rows by the content of some columns,
+     * backed by the provided <code>Csv</code> object.
+     *
+     * @param csv The data structure to be wrapped by the indexed <code>Csv</code>
+     * @return An indexed <code>Csv</code>
+     * @see com.douglasjose.tech.csv.IndexedCsv
+     */
+    public static IndexedCsv indexedCsv(Csv csv) {
+        return new IndexedCsv(csv);
+    }
+
     static class SynchronizedCsv implements Csv {
 
         private final Csv csv;
@@ -67,18 +457,84 @@ public class CsvFactory {
             }
         }
 
+        public String get(int row, String column) {
+            synchronized(mutex) {
+                return csv.get(row, column);
+            }
+        }
+
+        public void addRow(int row, String... fields) {
+            synchronized(mutex) {
+                csv.addRow(row, fields);
+            }
+        }
+
+        public Row getRow(int row) {
+            synchronized(mutex) {
+                return csv.getRow(row);
+            }
+        }
+
+        public Iterator<Row> iterator() {
+            return csv.iterator(); // Must be manually synchronized by the user
+        }
+
+        public Spliterator<Row> spliterator() {
+            return csv.spliterator(); // Must be manually synchronized by the user
+        }
+
+        public Stream<Row> rows() {
+            return csv.rows(); // Must be manually synchronized by the user
+        }
+
+        public Header getHeader() {
+            synchronized(mutex) {
+                return csv.getHeader();
+            }
+        }
+
+        public void setHeader(Header header) {
+            synchronized(mutex) {
+                csv.setHeader(header);
+            }
+        }
+
         public boolean remove(int row, int column) {
             synchronized(mutex) {
                 return csv.remove(row, column);
             }
         }
 
+        public boolean removeRow(int row) {
+            synchronized(mutex) {
+                return csv.removeRow(row);
+            }
+        }
+
+        public boolean removeColumn(int column) {
+            synchronized(mutex) {
+                return csv.removeColumn(column);
+            }
+        }
+
+        public boolean removeRange(int fromRow, int fromColumn, int toRow, int toColumn) {
+            synchronized(mutex) {
+                return csv.removeRange(fromRow, fromColumn, toRow, toColumn);
+            }
+        }
+
         public void load(InputStream is) throws IOException {
             synchronized(mutex) {
                 csv.load(is);
             }
         }
 
+        public void load(Path path) throws IOException {
+            synchronized(mutex) {
+                csv.load(path);
+            }
+        }
+
         public void store(OutputStream os) throws IOException {
             synchronized(mutex) {
                 csv.store(os);
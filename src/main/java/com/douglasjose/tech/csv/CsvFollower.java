@@ -0,0 +1,125 @@
+package com.douglasjose.tech.csv;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Follows a CSV file which keeps growing, such as a file other processes append records to.
+ * Each call to {@link #refresh()} only parses the bytes appended since the previous call, and
+ * adds their records to the <code>Csv</code> after the records already loaded, instead of
+ * reloading the whole file.
+ * <p>
+ * The follower remembers the position of the last complete record of the file. A record is only
+ * complete once its line terminator has been written; a partial record at the end of the file is
+ * left for the next refresh. The header, projection and filter of the parser are applied as if
+ * the file had been loaded at once. The listener of the parser, if any, is notified of the
+ * metrics of each refresh, covering only the records read by that refresh.
+ * <p>
+ * Followers are created by
+ * {@link com.douglasjose.tech.csv.CustomDelimitersCsvParser#follow(Csv, java.nio.file.Path)}.
+ * This class is not thread safe.
+ *
+ * @author Douglas Rodrigues
+ */
+public class CsvFollower {
+
+    private final CustomDelimitersCsvParser parser;
+    private final Path path;
+    private final RecordLoader loader;
+
+    // Position of the file after the last complete record
+    private long offset = 0;
+    // If the last complete record was ended by a '\r', which may be followed by a '\n'
+    private boolean skipLineFeed = false;
+
+    CsvFollower(CustomDelimitersCsvParser parser, Csv csv, Path path) {
+        this.parser = parser;
+        this.path = path;
+        this.loader = new RecordLoader(csv, parser.getHeaderMode(), parser.getProjection(),
+                parser.getRowFilter());
+    }
+
+    /**
+     * Parses the complete records appended to the file since the last refresh. The first refresh
+     * parses the file from its beginning.
+     *
+     * @return Number of records read from the file, including the header and the records
+     * rejected by the filter
+     * @throws IOException If the file cannot be read, is compressed, or became shorter than the
+     * records already read
+     */
+    public int refresh() throws IOException {
+        CsvListener listener = parser.getListener();
+        MetricsRecorder recorder = listener != null ? new MetricsRecorder() : null;
+        int records = refresh(recorder);
+        if (recorder != null) {
+            listener.loaded(recorder.toMetrics());
+        }
+        return records;
+    }
+
+    private int refresh(MetricsRecorder recorder) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < offset) {
+                throw new IOException("CSV file truncated: " + path);
+            }
+            if (size == offset) {
+                return 0;
+            }
+            if (offset == 0 && Compression.isCompressed(channel)) {
+                throw new IOException("Compressed CSV files cannot be followed: " + path);
+            }
+            MappedRecordScanner scanner = new MappedRecordScanner(channel, offset, size,
+                    parser.getFieldSeparator(), parser.getTextDelimiter(), parser.getCharset(),
+                    MappedRecordScanner.WINDOW_SIZE);
+            scanner.setSkipLineFeed(skipLineFeed);
+            long start = offset;
+            int records = 0;
+            if (recorder == null) {
+                while (scanner.next() && scanner.isTerminated()) {
+                    loader.add(scanner);
+                    offset = start + scanner.getConsumed();
+                    skipLineFeed = scanner.isSkippingLineFeed();
+                    records++;
+                }
+            } else {
+                long storedRows = loader.getStoredRows();
+                while (scanner.next() && scanner.isTerminated()) {
+                    long addStart = System.nanoTime();
+                    recorder.fields += scanner.size();
+                    loader.add(scanner);
+                    recorder.csvNanos += System.nanoTime() - addStart;
+                    // Counted per record, as the partial record at the end is not loaded yet
+                    recorder.quotedFields = scanner.getQuotedFields();
+                    offset = start + scanner.getConsumed();
+                    skipLineFeed = scanner.isSkippingLineFeed();
+                    records++;
+                }
+                recorder.records = records;
+                recorder.rows = loader.getStoredRows() - storedRows;
+                recorder.bytes = offset - start;
+            }
+            return records;
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * @return Position of the file after the last complete record read
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return Location of the followed file
+     */
+    public Path getPath() {
+        return path;
+    }
+}
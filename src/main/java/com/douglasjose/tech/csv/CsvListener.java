@@ -0,0 +1,29 @@
+package com.douglasjose.tech.csv;
+
+/**
+ * Receives the metrics of the files loaded and written by a
+ * {@link com.douglasjose.tech.csv.CustomDelimitersCsvParser}, once each operation is complete.
+ * Parsers without a listener do not collect any metric.
+ * <p>
+ * Listeners are called by the thread which loaded or wrote the file, and may be shared by several
+ * parsers used from different threads. {@link com.douglasjose.tech.csv.CsvStatistics} aggregates
+ * the metrics of all the operations it is notified of.
+ *
+ * @author Douglas Rodrigues
+ */
+public interface CsvListener {
+
+    /**
+     * Called once a file has been loaded into a <code>Csv</code>.
+     *
+     * @param metrics Metrics of the load
+     */
+    void loaded(CsvMetrics metrics);
+
+    /**
+     * Called once a <code>Csv</code> has been written to a file.
+     *
+     * @param metrics Metrics of the write
+     */
+    void written(CsvMetrics metrics);
+}
@@ -0,0 +1,129 @@
+package com.douglasjose.tech.csv;
+
+/**
+ * Counters and timings of one or more loads or writes of CSV files.
+ * The time of an operation is split in two phases: the time spent on the file, reading and
+ * splitting the records (or escaping and writing them), and the time spent on the
+ * <code>Csv</code>, decoding the fields and storing them (or reading the rows to be written).
+ * As fields are decoded when they are stored, decoding is accounted in the second phase.
+ *
+ * @author Douglas Rodrigues
+ */
+public final class CsvMetrics {
+
+    /**
+     * Metrics of no operation at all.
+     */
+    public static final CsvMetrics EMPTY = new CsvMetrics(0, 0, 0, 0, 0, 0, 0);
+
+    private final long records;
+    private final long rows;
+    private final long fields;
+    private final long quotedFields;
+    private final long bytes;
+    private final long elapsedNanos;
+    private final long csvNanos;
+
+    CsvMetrics(long records, long rows, long fields, long quotedFields, long bytes,
+               long elapsedNanos, long csvNanos) {
+        this.records = records;
+        this.rows = rows;
+        this.fields = fields;
+        this.quotedFields = quotedFields;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+        this.csvNanos = csvNanos;
+    }
+
+    /**
+     * Adds up the metrics of two sets of operations.
+     *
+     * @param other Metrics of other operations
+     * @return Metrics of both sets of operations
+     */
+    public CsvMetrics plus(CsvMetrics other) {
+        return new CsvMetrics(records + other.records, rows + other.rows, fields + other.fields,
+                quotedFields + other.quotedFields, bytes + other.bytes,
+                elapsedNanos + other.elapsedNanos, csvNanos + other.csvNanos);
+    }
+
+    /**
+     * @return Number of records read from the file (including the header and the records
+     * rejected by the filter), or written to the file
+     */
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * @return Number of rows stored in the <code>Csv</code>, or read from it to be written
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return Number of fields of the records read or written
+     */
+    public long getFields() {
+        return fields;
+    }
+
+    /**
+     * @return Number of fields within text delimiters
+     */
+    public long getQuotedFields() {
+        return quotedFields;
+    }
+
+    /**
+     * @return Number of bytes read from or written to the stream or file, as they are stored
+     * (compressed, for compressed files)
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return Total time of the operations, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return Time spent reading and splitting the records, or escaping and writing them, in
+     * nanoseconds
+     */
+    public long getFileNanos() {
+        return elapsedNanos - csvNanos;
+    }
+
+    /**
+     * @return Time spent decoding and storing the fields in the <code>Csv</code>, or reading the
+     * rows to be written from it, in nanoseconds
+     */
+    public long getCsvNanos() {
+        return csvNanos;
+    }
+
+    /**
+     * @return Number of fields read or written per second
+     */
+    public double getFieldsPerSecond() {
+        return elapsedNanos > 0 ? fields * 1e9 / elapsedNanos : 0;
+    }
+
+    /**
+     * @return Fraction of the fields which were within text delimiters, between 0 and 1
+     */
+    public double getQuotedFieldRatio() {
+        return fields > 0 ? (double) quotedFields / fields : 0;
+    }
+
+    public String toString() {
+        return "CsvMetrics[records=" + records + ", rows=" + rows + ", fields=" + fields
+                + ", quotedFields=" + quotedFields + ", bytes=" + bytes + ", elapsedNanos="
+                + elapsedNanos + ", csvNanos=" + csvNanos + "]";
+    }
+}
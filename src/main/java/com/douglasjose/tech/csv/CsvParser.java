@@ -3,6 +3,9 @@ package com.douglasjose.tech.csv;
 import java.io.OutputStream;
 import java.io.InputStream;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 
 /**
  * The <code>CsvParser</code> class contains the functionality required to persist the
@@ -25,6 +28,19 @@ public interface CsvParser {
      */
     public void writeFile(Csv csv, OutputStream os) throws IOException;
 
+    /**
+     * Writes a <code>Csv</code> data structure to a stream, in a given encoding.
+     * The default implementation ignores the encoding, for formats which do not depend on one.
+     *
+     * @param csv Data structure to be persisted
+     * @param os Stream to persist the data to
+     * @param charset Encoding of the file
+     * @throws IOException If the data cannot be persisted
+     */
+    public default void writeFile(Csv csv, OutputStream os, Charset charset) throws IOException {
+        writeFile(csv, os);
+    }
+
     /**
      * Loads a <code>Csv</code> data structure from a stream.
      *
@@ -33,4 +49,34 @@ public interface CsvParser {
      * @throws IOException If the data cannot be read
      */
     public void loadFile(Csv csv, InputStream is) throws IOException;
+
+    /**
+     * Loads a <code>Csv</code> data structure from a stream, in a given encoding.
+     * The default implementation ignores the encoding, for formats which do not depend on one.
+     *
+     * @param csv Destination data structure
+     * @param is Stream to read the data from
+     * @param charset Encoding of the file
+     * @throws IOException If the data cannot be read
+     */
+    public default void loadFile(Csv csv, InputStream is, Charset charset) throws IOException {
+        loadFile(csv, is);
+    }
+
+    /**
+     * Loads a <code>Csv</code> data structure from a file channel. The channel is closed once the
+     * data has been loaded, or the load has failed.
+     * The default implementation reads the channel as a stream.
+     *
+     * @param csv Destination data structure
+     * @param channel Channel to read the data from
+     * @throws IOException If the data cannot be read
+     */
+    public default void loadFile(Csv csv, FileChannel channel) throws IOException {
+        try {
+            loadFile(csv, Channels.newInputStream(channel));
+        } finally {
+            channel.close();
+        }
+    }
 }
@@ -0,0 +1,184 @@
+package com.douglasjose.tech.csv;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publisher of the rows of a CSV file, read by a {@link com.douglasjose.tech.csv.CsvReader}.
+ * Rows are only read from the file as the subscriber requests them, so a slow subscriber slows
+ * the parsing down instead of having the rows buffered in memory.
+ * <p>
+ * The rows are read and delivered by tasks submitted to an executor, never by the thread which
+ * requests them. The tasks do not hold any lock while reading, so they can run on virtual
+ * threads. As the file can only be read once, a publisher accepts a single subscriber; the reader
+ * is closed once the file has been read, an error occurs or the subscription is cancelled.
+ * If the executor rejects a task, the subscriber receives the
+ * <code>RejectedExecutionException</code> through <code>onError</code>, and the subscription is
+ * cancelled.
+ *
+ * @author Douglas Rodrigues
+ */
+public class CsvPublisher implements Flow.Publisher<Row> {
+
+    private final CsvReader reader;
+    private final Executor executor;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    /**
+     * Creates a publisher of the remaining rows of a reader.
+     *
+     * @param reader Reader of the CSV file
+     * @param executor Executor running the tasks which read and deliver the rows
+     */
+    public CsvPublisher(CsvReader reader, Executor executor) {
+        if (reader == null) {
+            throw new IllegalArgumentException("Invalid reader: [" + reader + "]");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("Invalid executor: [" + executor + "]");
+        }
+        this.reader = reader;
+        this.executor = executor;
+    }
+
+    public void subscribe(Flow.Subscriber<? super Row> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Invalid subscriber: [" + subscriber + "]");
+        }
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                public void request(long n) {
+                }
+
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("CSV publisher already subscribed"));
+            return;
+        }
+        RowSubscription subscription = new RowSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * Subscription which reads as many rows as requested. Requests and cancellations only update
+     * the state and schedule a drain task; a single drain task runs at a time.
+     */
+    private class RowSubscription implements Flow.Subscription, Runnable {
+
+        private final Flow.Subscriber<? super Row> subscriber;
+        // Rows requested and not delivered yet
+        private final AtomicLong demand = new AtomicLong();
+        // Number of times the drain task was scheduled and has not caught up yet
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile boolean cancelled = false;
+        private volatile Throwable invalidRequest;
+        // Only accessed by the drain task, or by the thread whose drain task was rejected
+        private boolean done = false;
+
+        RowSubscription(Flow.Subscriber<? super Row> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Invalid number of rows: " + n);
+                cancelled = true;
+            } else {
+                long current;
+                do {
+                    current = demand.get();
+                } while (!demand.compareAndSet(current, current + n < 0 ? Long.MAX_VALUE
+                        : current + n));
+            }
+            schedule();
+        }
+
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (pending.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // No drain task runs while pending is positive, so the subscription is
+                    // finished here; pending is never reset, so no task is scheduled any more
+                    if (!done) {
+                        finish(cancelled ? invalidRequest : e);
+                    }
+                    cancelled = true;
+                }
+            }
+        }
+
+        public void run() {
+            int missed = 1;
+            do {
+                if (!done) {
+                    drain();
+                }
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            long requested = demand.get();
+            long delivered = 0;
+            while (!cancelled) {
+                if (delivered == requested) {
+                    requested = demand.addAndGet(-delivered);
+                    delivered = 0;
+                    if (requested == 0) {
+                        return;
+                    }
+                }
+                Row row;
+                try {
+                    row = reader.nextRow();
+                } catch (IOException e) {
+                    finish(e);
+                    return;
+                }
+                if (row == null) {
+                    finish(null);
+                    return;
+                }
+                try {
+                    subscriber.onNext(row);
+                } catch (Throwable e) {
+                    // A failing subscriber is considered cancelled
+                    cancelled = true;
+                    break;
+                }
+                delivered++;
+            }
+            // Cancelled by the subscriber, or by an invalid request which must be reported
+            finish(invalidRequest);
+        }
+
+        // Closes the reader and signals the end of the rows to the subscriber, unless cancelled
+        private void finish(Throwable error) {
+            done = true;
+            try {
+                reader.close();
+            } catch (IOException e) {
+                if (error == null && !cancelled) {
+                    error = e;
+                }
+            }
+            if (error != null && (!cancelled || error == invalidRequest)) {
+                subscriber.onError(error);
+            } else if (!cancelled) {
+                subscriber.onComplete();
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.douglasjose.tech.csv;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Pull-based reader which delivers a CSV file one {@link com.douglasjose.tech.csv.Row} at a time.
+ * Unlike {@link com.douglasjose.tech.csv.Csv#load(java.io.InputStream)}, the content of the
+ * file is never held in memory as a whole, so files of any size can be processed in constant
+ * memory.
+ * The rows are split with the same rules used by
+ * {@link com.douglasjose.tech.csv.CustomDelimitersCsvParser}.
+ * <p>
+ * The file is read into a single reusable buffer, and the fields are split in place. Callers
+ * which do not need every field as a <code>String</code> should use {@link #nextRecord()},
+ * which exposes the fields as views over that buffer without copying them.
+ *
+ * @author Douglas Rodrigues
+ */
+public class CsvReader implements Iterable<Row>, Closeable {
+
+    private final RecordScanner scanner;
+
+    /**
+     * Creates a reader for a file with customized delimiters.
+     *
+     * @param is Stream to read the CSV file from
+     * @param fieldSeparator String used to separate fields in the file
+     * @param textDelimiter String used as text delimiter
+     */
+    public CsvReader(InputStream is, String fieldSeparator, String textDelimiter) {
+        this(new CustomDelimitersCsvParser(fieldSeparator, textDelimiter).createReader(is).scanner);
+    }
+
+    /**
+     * Creates a reader for a file with customized delimiters, in a given encoding.
+     *
+     * @param is Stream to read the CSV file from
+     * @param fieldSeparator String used to separate fields in the file
+     * @param textDelimiter String used as text delimiter
+     * @param charset Encoding of the file
+     */
+    public CsvReader(InputStream is, String fieldSeparator, String textDelimiter, Charset charset) {
+        this(new CustomDelimitersCsvParser(fieldSeparator, textDelimiter, charset)
+                .createReader(is).scanner);
+    }
+
+    CsvReader(RecordScanner scanner) {
+        this.scanner = scanner;
+    }
+
+    /**
+     * Reads the next row from the file.
+     *
+     * @return The next row, or <code>null</code> if the end of the file has been reached
+     * @throws IOException If the data cannot be read
+     */
+    public Row nextRow() throws IOException {
+        if (!scanner.next()) {
+            return null;
+        }
+        String[] fields = new String[scanner.size()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = scanner.getString(i);
+        }
+        return new Row(scanner.getIndex(), fields);
+    }
+
+    /**
+     * Reads the next record from the file, without copying its fields.
+     * The returned record, as well as the fields obtained from it, is reused by the reader and is
+     * only valid until the next call to this method or to {@link #nextRow()}.
+     *
+     * @return The next record, or <code>null</code> if the end of the file has been reached
+     * @throws IOException If the data cannot be read
+     */
+    public CsvRecord nextRecord() throws IOException {
+        return scanner.next() ? scanner : null;
+    }
+
+    /**
+     * Iterates over the remaining rows of the file. As the rows are read from the underlying
+     * stream, the file can only be iterated once; I/O errors are reported as
+     * <code>IllegalStateException</code>.
+     *
+     * @return Iterator over the remaining rows
+     */
+    public Iterator<Row> iterator() {
+        return new Iterator<Row>() {
+
+            private Row next;
+
+            public boolean hasNext() {
+                if (next == null) {
+                    try {
+                        next = nextRow();
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Could not read CSV row", e);
+                    }
+                }
+                return next != null;
+            }
+
+            public Row next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Row row = next;
+                next = null;
+                return row;
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * @return Number of fields read so far which were within text delimiters
+     */
+    long getQuotedFields() {
+        return scanner.getQuotedFields();
+    }
+
+    /**
+     * Closes the reader and the underlying stream.
+     *
+     * @throws IOException If the stream cannot be closed
+     */
+    public void close() throws IOException {
+        scanner.close();
+    }
+}
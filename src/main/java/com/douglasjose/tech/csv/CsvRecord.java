@@ -0,0 +1,31 @@
+package com.douglasjose.tech.csv;
+
+/**
+ * A record (row) of a CSV file whose fields are exposed as character sequences.
+ * Records returned by {@link com.douglasjose.tech.csv.CsvReader#nextRecord()} are views over the
+ * reader buffer: their fields are only copied into a <code>String</code> when
+ * <code>toString()</code> is called, and they are only valid until the next record is read.
+ *
+ * @author Douglas Rodrigues
+ */
+public interface CsvRecord {
+
+    /**
+     * @return Zero-based index of this record in the file
+     */
+    int getIndex();
+
+    /**
+     * @return Number of fields read for this record
+     */
+    int size();
+
+    /**
+     * Retrieves a field of the record. Returns the empty string if the record has no field in the
+     * given column.
+     *
+     * @param column Zero-based column index
+     * @return The content of the field
+     */
+    CharSequence get(int column);
+}
@@ -0,0 +1,91 @@
+package com.douglasjose.tech.csv;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Description of the columns of a CSV file, used by {@link com.douglasjose.tech.csv.TypedCsv}
+ * to store each column in its own type.
+ * Columns are declared in the order they appear in the file; columns of the file which are not
+ * declared are handled with a default type, {@link com.douglasjose.tech.csv.ColumnType#STRING}
+ * unless another one is set.
+ *
+ * @author Douglas Rodrigues
+ */
+public class CsvSchema {
+
+    private final List<String> names = new ArrayList<String>();
+    private final List<ColumnType> types = new ArrayList<ColumnType>();
+    private final Map<String, Integer> indexes = new HashMap<String, Integer>();
+    private ColumnType defaultType = ColumnType.STRING;
+
+    /**
+     * Declares the next column of the file.
+     *
+     * @param name Unique name of the column
+     * @param type Type of the content of the column
+     * @return This schema
+     */
+    public CsvSchema addColumn(String name, ColumnType type) {
+        if (name == null || indexes.containsKey(name)) {
+            throw new IllegalArgumentException("Invalid column name: [" + name + "]");
+        }
+        if (type == null) {
+            throw new IllegalArgumentException("Invalid column type: [" + type + "]");
+        }
+        indexes.put(name, names.size());
+        names.add(name);
+        types.add(type);
+        return this;
+    }
+
+    /**
+     * Sets the type of the columns which are not declared. For example, all the columns of a
+     * reference table can be dictionary encoded with
+     * <code>new CsvSchema().setDefaultType(ColumnType.DICTIONARY)</code>.
+     *
+     * @param type Type of the content of the undeclared columns
+     * @return This schema
+     */
+    public CsvSchema setDefaultType(ColumnType type) {
+        if (type == null) {
+            throw new IllegalArgumentException("Invalid column type: [" + type + "]");
+        }
+        this.defaultType = type;
+        return this;
+    }
+
+    /**
+     * @return Number of declared columns
+     */
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * @param column Zero-based column index
+     * @return Name of the column, or <code>null</code> if the column is not declared
+     */
+    public String getName(int column) {
+        return column >= 0 && column < names.size() ? names.get(column) : null;
+    }
+
+    /**
+     * @param column Zero-based column index
+     * @return Type of the column; the default type if the column is not declared
+     */
+    public ColumnType getType(int column) {
+        return column >= 0 && column < types.size() ? types.get(column) : defaultType;
+    }
+
+    /**
+     * @param name Name of the column
+     * @return Zero-based index of the column, or -1 if there is no column with the given name
+     */
+    public int indexOf(String name) {
+        Integer index = indexes.get(name);
+        return index != null ? index : -1;
+    }
+}
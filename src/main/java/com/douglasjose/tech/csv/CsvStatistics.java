@@ -0,0 +1,64 @@
+package com.douglasjose.tech.csv;
+
+/**
+ * Listener which adds up the metrics of all the loads and writes it is notified of, so they can
+ * be read periodically and exported to a monitoring system. Thread safe: a single instance can be
+ * shared by all the parsers of an application.
+ *
+ * @author Douglas Rodrigues
+ */
+public class CsvStatistics implements CsvListener {
+
+    private long loads = 0;
+    private long writes = 0;
+    private CsvMetrics loadTotals = CsvMetrics.EMPTY;
+    private CsvMetrics writeTotals = CsvMetrics.EMPTY;
+
+    public synchronized void loaded(CsvMetrics metrics) {
+        loads++;
+        loadTotals = loadTotals.plus(metrics);
+    }
+
+    public synchronized void written(CsvMetrics metrics) {
+        writes++;
+        writeTotals = writeTotals.plus(metrics);
+    }
+
+    /**
+     * @return Number of files loaded
+     */
+    public synchronized long getLoads() {
+        return loads;
+    }
+
+    /**
+     * @return Number of files written
+     */
+    public synchronized long getWrites() {
+        return writes;
+    }
+
+    /**
+     * @return Sum of the metrics of the files loaded
+     */
+    public synchronized CsvMetrics getLoadTotals() {
+        return loadTotals;
+    }
+
+    /**
+     * @return Sum of the metrics of the files written
+     */
+    public synchronized CsvMetrics getWriteTotals() {
+        return writeTotals;
+    }
+
+    /**
+     * Discards the metrics collected so far.
+     */
+    public synchronized void reset() {
+        loads = 0;
+        writes = 0;
+        loadTotals = CsvMetrics.EMPTY;
+        writeTotals = CsvMetrics.EMPTY;
+    }
+}
@@ -0,0 +1,198 @@
+package com.douglasjose.tech.csv;
+
+import java.io.*;
+import java.nio.charset.Charset;
+
+/**
+ * Streaming writer which writes a CSV file row by row, without holding the content in memory.
+ * The fields are escaped with the same rules used by
+ * {@link com.douglasjose.tech.csv.CustomDelimitersCsvParser}: fields containing the field
+ * separator, the text delimiter or a line terminator are surrounded by the text delimiter, and
+ * the text delimiter is escaped by duplication.
+ * <p>
+ * Escaping is done in a single pass over reusable buffers, so writing a field allocates no
+ * objects.
+ *
+ * @author Douglas Rodrigues
+ */
+public class CsvWriter implements Closeable, Flushable {
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private final Writer writer;
+    private final char[] textDelimiter;
+    private final char[] fieldSeparator;
+    private final String lineSeparator = System.getProperty("line.separator");
+
+    // Content of the field being written, and its escaped form
+    private char[] input = new char[256];
+    private char[] output = new char[512];
+    private int fieldsInRow = 0;
+    // Number of fields written within text delimiters
+    private long quotedFields = 0;
+
+    /**
+     * Creates a writer for a file with customized delimiters.
+     *
+     * @param os Stream to write the CSV file to
+     * @param fieldSeparator String used to separate fields in the file
+     * @param textDelimiter String used as text delimiter
+     */
+    public CsvWriter(OutputStream os, String fieldSeparator, String textDelimiter) {
+        this(os, fieldSeparator, textDelimiter, Charset.defaultCharset());
+    }
+
+    /**
+     * Creates a writer for a file with customized delimiters, in a given encoding.
+     *
+     * @param os Stream to write the CSV file to
+     * @param fieldSeparator String used to separate fields in the file
+     * @param textDelimiter String used as text delimiter
+     * @param charset Encoding of the file
+     */
+    public CsvWriter(OutputStream os, String fieldSeparator, String textDelimiter, Charset charset) {
+        this(new OutputStreamWriter(os, charset), new CustomDelimitersCsvParser(fieldSeparator,
+                textDelimiter, charset));
+    }
+
+    CsvWriter(Writer writer, CustomDelimitersCsvParser parser) {
+        this.writer = new BufferedWriter(writer, BUFFER_SIZE);
+        this.textDelimiter = parser.getTextDelimiter().toCharArray();
+        this.fieldSeparator = parser.getFieldSeparator().toCharArray();
+    }
+
+    /**
+     * Writes a field to the current row.
+     *
+     * @param content Content of the field
+     * @throws IOException If the data cannot be written
+     */
+    public void writeField(CharSequence content) throws IOException {
+        if (fieldsInRow++ > 0) {
+            writer.write(fieldSeparator);
+        }
+        int length = content.length();
+        if (input.length < length) {
+            input = new char[Math.max(length, input.length * 2)];
+        }
+        if (content instanceof String) {
+            ((String) content).getChars(0, length, input, 0);
+        } else {
+            for (int i = 0; i < length; i++) {
+                input[i] = content.charAt(i);
+            }
+        }
+        // Worst case: every character is a duplicated text delimiter
+        if (output.length < length * 2) {
+            output = new char[Math.max(length * 2, output.length * 2)];
+        }
+        boolean delimit = false;
+        int w = 0;
+        int i = 0;
+        while (i < length) {
+            if (startsWith(input, length, textDelimiter, i)) {
+                // The text delimiter is escaped (duplicated)
+                System.arraycopy(textDelimiter, 0, output, w, textDelimiter.length);
+                System.arraycopy(textDelimiter, 0, output, w + textDelimiter.length,
+                        textDelimiter.length);
+                w += textDelimiter.length * 2;
+                i += textDelimiter.length;
+                delimit = true;
+            } else {
+                char c = input[i];
+                if (!delimit && (c == '\n' || c == '\r'
+                        || startsWith(input, length, fieldSeparator, i))) {
+                    delimit = true;
+                }
+                output[w++] = c;
+                i++;
+            }
+        }
+        if (delimit) {
+            // Put the content between the text delimiter
+            quotedFields++;
+            writer.write(textDelimiter);
+            writer.write(output, 0, w);
+            writer.write(textDelimiter);
+        } else {
+            writer.write(output, 0, w);
+        }
+    }
+
+    /**
+     * Ends the current row; the next field is written to a new row.
+     *
+     * @throws IOException If the data cannot be written
+     */
+    public void endRow() throws IOException {
+        writer.write(lineSeparator);
+        fieldsInRow = 0;
+    }
+
+    /**
+     * Writes a complete row.
+     *
+     * @param fields Content of the fields of the row
+     * @throws IOException If the data cannot be written
+     */
+    public void writeRow(String... fields) throws IOException {
+        for (String field : fields) {
+            writeField(field);
+        }
+        endRow();
+    }
+
+    /**
+     * Writes a complete row, such as a record read by a {@link com.douglasjose.tech.csv.CsvReader}.
+     *
+     * @param record Record to be written
+     * @throws IOException If the data cannot be written
+     */
+    public void writeRow(CsvRecord record) throws IOException {
+        for (int i = 0; i < record.size(); i++) {
+            writeField(record.get(i));
+        }
+        endRow();
+    }
+
+    /**
+     * @return Number of fields written so far which had to be put within text delimiters
+     */
+    long getQuotedFields() {
+        return quotedFields;
+    }
+
+    /**
+     * Writes any buffered content to the underlying stream.
+     *
+     * @throws IOException If the data cannot be written
+     */
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    /**
+     * Writes any buffered content and closes the underlying stream.
+     *
+     * @throws IOException If the data cannot be written
+     */
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    /**
+     * Checks for the presence of a char array (<code>pattern</code>) as a subsequence in
+     * <code>buffer[offset, end)</code>.
+     */
+    private static boolean startsWith(char[] buffer, int end, char[] pattern, int offset) {
+        if (offset + pattern.length > end || buffer[offset] != pattern[0]) {
+            return false;
+        }
+        for (int i = 1; i < pattern.length; i++) {
+            if (buffer[offset + i] != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,156 +1,308 @@
 package com.douglasjose.tech.csv;
 
 import java.io.*;
-import java.util.List;
-import java.util.ArrayList;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Class which provides a general <code>CsvParser</code> implementation.
  * A common <code>CsvParser</code> implementation may be defined by instantiating this class
  * defining a text delimiter and a field delimiter for the CSV file.
+ * <p>
+ * Files are read and written in the encoding given to the parser (the platform default, if none
+ * is given). Files in ASCII compatible encodings (UTF-8, ISO-8859-1 and US-ASCII) are split as
+ * raw bytes, and only the content of the fields is decoded.
+ * <p>
+ * The first row of the loaded files may be taken as the {@link com.douglasjose.tech.csv.Header}
+ * of the <code>Csv</code>, according to the {@link com.douglasjose.tech.csv.HeaderMode} of the
+ * parser. The header of a <code>Csv</code> is always written as the first row of the file.
+ * A {@link com.douglasjose.tech.csv.Projection} restricts the loaded columns to a selection,
+ * skipping the other fields of the file without copying them, and a
+ * {@link com.douglasjose.tech.csv.RowFilter} restricts the loaded rows, rejecting records
+ * before any of their fields is copied.
+ * <p>
+ * Files in the gzip format are detected and decompressed when they are read, on a separate
+ * thread which runs ahead of the parsing. The files are written with the
+ * {@link com.douglasjose.tech.csv.Compression} of the parser.
+ * <p>
+ * A {@link com.douglasjose.tech.csv.CsvListener} may be notified of the metrics of each file
+ * loaded or written. Parsers without a listener do not take any measurement.
+ * <p>
+ * Parsers are immutable; the options other than the delimiters and the encoding are set by
+ * copying a parser with the <code>with</code> methods:
+ * <pre>
+ * CsvParser parser = new CustomDelimitersCsvParser(",", "\"")
+ *         .withHeaderMode(HeaderMode.FIRST_ROW)
+ *         .withProjection(Projection.ofColumns(0, 2));
+ * </pre>
  *
  * @author Douglas Rodrigues
  */
 public class CustomDelimitersCsvParser implements CsvParser {
 
+    // Smallest part of a file parsed by a single task when loading in parallel
+    private static final int MIN_RANGE_SIZE = 1024 * 1024;
+
     private final char[] textDelimiter;
-    private final char[] textDelimiterLiteral;
     private final char[] fieldSeparator;
+    private final Charset charset;
+    private final HeaderMode headerMode;
+    private final Projection projection;
+    private final RowFilter filter;
+    private final Compression compression;
+    private final CsvListener listener;
 
     public CustomDelimitersCsvParser(String fieldSeparator, String textDelimiter) {
+        this(fieldSeparator, textDelimiter, Charset.defaultCharset());
+    }
+
+    public CustomDelimitersCsvParser(String fieldSeparator, String textDelimiter,
+                                     Charset charset) {
+        this(fieldSeparator, textDelimiter, charset, HeaderMode.NONE, null, null, Compression.NONE,
+                null);
+    }
+
+    private CustomDelimitersCsvParser(String fieldSeparator, String textDelimiter,
+                                      Charset charset, HeaderMode headerMode,
+                                      Projection projection, RowFilter filter,
+                                      Compression compression, CsvListener listener) {
         if (fieldSeparator == null || fieldSeparator.length() < 1) {
             throw new IllegalArgumentException("Invalid field separator: [" + fieldSeparator + "]");
         }
         if (textDelimiter == null || textDelimiter.length() < 1) {
             throw new IllegalArgumentException("Invalid text delimiter: [" + textDelimiter + "]");
-        }        
+        }
+        if (charset == null) {
+            throw new IllegalArgumentException("Invalid charset: [" + charset + "]");
+        }
+        if (headerMode == null) {
+            throw new IllegalArgumentException("Invalid header mode: [" + headerMode + "]");
+        }
+        if (compression == null) {
+            throw new IllegalArgumentException("Invalid compression: [" + compression + "]");
+        }
         this.textDelimiter = textDelimiter.toCharArray();
-        this.textDelimiterLiteral = (textDelimiter + textDelimiter).toCharArray();
         this.fieldSeparator = fieldSeparator.toCharArray();
+        this.charset = charset;
+        this.headerMode = headerMode;
+        this.projection = projection;
+        this.filter = filter;
+        this.compression = compression;
+        this.listener = listener;
     }
 
 
-    private String escapeCell(String content) {
-        String out = content;
-        boolean hasFieldSeparator = content.contains(this.getFieldSeparator());
-        boolean hasTextDelimiter = content.contains(this.getTextDelimiter());
-        if (hasTextDelimiter) {
-            // The text delimiter is escaped (duplicated)
-            out = this.replaceAll(out, this.getTextDelimiter(),
-                    this.getTextDelimiter() + this.getTextDelimiter());
-        }
-        if (hasFieldSeparator || hasTextDelimiter) {
-            // Put the content between the text delimiter
-            out = this.getTextDelimiter() + out + this.getTextDelimiter();
-        }
-        return out;
+    public void writeFile(Csv csv, OutputStream os) throws IOException {
+        writeFile(csv, os, charset);
     }
 
-    public void writeFile(Csv csv, OutputStream os) throws IOException {
-        PrintWriter pw = new PrintWriter(os);
-        for (int i = 0; i < csv.getRows(); i++) {
-            for (int j = 0; j < csv.getColumns(); j++) {
-                pw.print(escapeCell(csv.get(i,j)));
-                if (j < csv.getColumns() - 1) {
-                    pw.print(this.getFieldSeparator());
-                }
+    public void writeFile(Csv csv, OutputStream os, Charset charset) throws IOException {
+        MetricsRecorder recorder = listener != null ? new MetricsRecorder() : null;
+        CsvWriter writer = createWriter(compression.compress(recorder != null
+                ? recorder.count(os) : os), charset);
+        int rows = csv.getRows();
+        Header header = csv.getHeader();
+        if (header != null) {
+            writer.writeRow(header.toArray());
+        }
+        if (recorder == null) {
+            for (int i = 0; i < rows; i++) {
+                writer.writeRow(csv.getRow(i));
             }
-            pw.println();
-        }        
-        pw.close();
+        } else {
+            for (int i = 0; i < rows; i++) {
+                long start = System.nanoTime();
+                Row row = csv.getRow(i);
+                recorder.csvNanos += System.nanoTime() - start;
+                recorder.fields += row.size();
+                writer.writeRow(row);
+            }
+        }
+        writer.close();
         os.close();
+        if (recorder != null) {
+            recorder.rows = rows;
+            recorder.records = header != null ? rows + 1 : rows;
+            recorder.fields += header != null ? header.size() : 0;
+            recorder.quotedFields = writer.getQuotedFields();
+            listener.written(recorder.toMetrics());
+        }
     }
 
     public void loadFile(Csv csv, InputStream is) throws IOException {
-        BufferedReader reader = new BufferedReader(new InputStreamReader(is));
-        String line;
-        int lineNumber = 0;
-        int columnNumber;
-        while ((line = reader.readLine()) != null) {
-            List<String> fields = this.splitLine(line);
-            columnNumber = 0;
-            for (String field : fields) {
-                csv.add(lineNumber, columnNumber++, field);
-            }
-            lineNumber++;
-        }
-        reader.close();
-        is.close();
-    }
-
-    /**
-     *
-     * @param line
-     * @return
-     */
-    private List<String> splitLine(String line) {
-        List<String> out = new ArrayList<String>();
-        // If the current position points to a literal (within text delimiter) or not
-        boolean literal = false;
-        char[] cLine = line.toCharArray();
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < line.length(); i++) {
-            if (!literal && startsWith(cLine, fieldSeparator, i)) {
-                out.add(sb.toString());
-                sb = new StringBuilder();
-                i += fieldSeparator.length - 1; // Skipping
-            } else if (startsWith(cLine, textDelimiter, i)) {
-                // Text delimiter found; if single, flip the literal flag,
-                // if double and within a literal, means it is part of the content
-                if (literal && startsWith(cLine, textDelimiterLiteral, i)) {
-                    sb.append(textDelimiter);
-                    i += textDelimiterLiteral.length - 1;
-                } else {
-                    literal = !literal;
-                    i += textDelimiter.length - 1; // Skipping
+        loadFile(csv, is, charset);
+    }
+
+    public void loadFile(Csv csv, InputStream is, Charset charset) throws IOException {
+        try {
+            MetricsRecorder recorder = listener != null ? new MetricsRecorder() : null;
+            load(csv, createReader(recorder != null ? recorder.count(is) : is, charset), recorder);
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * Loads a <code>Csv</code> data structure from a file channel, splitting the file in several
+     * parts which are parsed concurrently. Each part starts at the beginning of a record; the
+     * parsed rows are stored in the <code>Csv</code> in the same order as in the file, from the
+     * calling thread.
+     * Files which cannot be split without being decoded (encodings which are not ASCII
+     * compatible), files whose text delimiter may overlap itself (such as <code>''</code>),
+     * compressed files and small files are parsed sequentially, as a stream.
+     * <p>
+     * The rows of each part are buffered until all the previous parts have been stored, and only
+     * one more part than the parallelism of the pool is parsed ahead. A file is split in about
+     * four parts per thread of the pool (of at most 64 MB each), so the rows of up to about a
+     * quarter of the file are held in memory in addition to the <code>Csv</code>.
+     *
+     * @param csv Destination data structure
+     * @param channel Channel to read the data from, starting at its current position
+     * @param pool Pool running the parsing tasks
+     * @throws IOException If the data cannot be read
+     */
+    public void loadFile(Csv csv, FileChannel channel, ForkJoinPool pool) throws IOException {
+        try {
+            loadParallel(csv, channel, pool);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void loadParallel(Csv csv, FileChannel channel, ForkJoinPool pool) throws IOException {
+        long length = channel.size() - channel.position();
+        long rangeSize = Math.min(MappedRecordScanner.WINDOW_SIZE,
+                Math.max(MIN_RANGE_SIZE, length / (pool.getParallelism() * 4L)));
+        if (length <= rangeSize || !ParallelLoader.supports(getTextDelimiter(), charset)
+                || Compression.isCompressed(channel)) {
+            loadFile(csv, channel);
+            return;
+        }
+        MetricsRecorder recorder = null;
+        if (listener != null) {
+            recorder = new MetricsRecorder();
+            recorder.bytes = length;
+        }
+        RecordLoader loader = new RecordLoader(csv, headerMode, projection, filter);
+        new ParallelLoader(getFieldSeparator(), getTextDelimiter(), charset).load(loader, channel,
+                pool, rangeSize, recorder);
+        if (recorder != null) {
+            recorder.rows = loader.getStoredRows();
+            listener.loaded(recorder.toMetrics());
+        }
+    }
+
+    /**
+     * Follows a file which keeps growing: each refresh of the follower adds the records appended
+     * to the file to a <code>Csv</code>, parsing only the new bytes. The records are stored from
+     * the first row, as they would be by a load, so the <code>Csv</code> is expected to be empty.
+     * Only files in ASCII compatible encodings can be followed.
+     *
+     * @param csv Destination data structure
+     * @param path Location of the file
+     * @return Follower of the file, which has not read any record yet
+     * @throws IllegalStateException If the encoding of the parser is not ASCII compatible
+     * @see com.douglasjose.tech.csv.CsvFollower
+     */
+    public CsvFollower follow(Csv csv, Path path) {
+        if (!ByteRecordScanner.supports(charset)) {
+            throw new IllegalStateException("CSV files in " + charset + " cannot be followed");
+        }
+        return new CsvFollower(this, csv, path);
+    }
+
+    private void load(Csv csv, CsvReader reader, MetricsRecorder recorder) throws IOException {
+        RecordLoader loader = new RecordLoader(csv, headerMode, projection, filter);
+        CsvRecord record;
+        try {
+            if (recorder == null) {
+                while ((record = reader.nextRecord()) != null) {
+                    loader.add(record);
                 }
             } else {
-                sb.append(cLine[i]);
+                while ((record = reader.nextRecord()) != null) {
+                    long start = System.nanoTime();
+                    recorder.records++;
+                    recorder.fields += record.size();
+                    loader.add(record);
+                    recorder.csvNanos += System.nanoTime() - start;
+                }
             }
+            loader.finish();
+        } finally {
+            reader.close();
+        }
+        if (recorder != null) {
+            recorder.rows = loader.getStoredRows();
+            recorder.quotedFields = reader.getQuotedFields();
+            listener.loaded(recorder.toMetrics());
         }
-        String last = sb.toString();
-        if (last != null && last.length() > 0) {
-            out.add(last);
-        }        
-        return out;
     }
 
     /**
-     * Checks for the presence of a char array (<code>pattern</code>) as a subsequence in another
-     * char array (<code>buffer</code>) starting from the position <code>offset</code>.
-     * @param buffer
-     * @param pattern
-     * @param offset
-     * @return
+     * Creates a streaming writer which escapes the fields with the delimiters of this parser.
+     *
+     * @param os Stream to write the CSV file to
+     * @return Row by row writer for the stream
      */
-    private boolean startsWith(char[] buffer, char[] pattern, int offset) {
-        int i;
-        for (i = 0; i < pattern.length && offset + i < buffer.length; i++) {
-            if (buffer[offset + i] != pattern[i]) {
-                return false;
-            }
-        }
-        return i == pattern.length;
+    public CsvWriter createWriter(OutputStream os) {
+        return createWriter(os, charset);
+    }
+
+    /**
+     * Creates a streaming writer which escapes the fields with the delimiters of this parser.
+     *
+     * @param os Stream to write the CSV file to
+     * @param charset Encoding of the file
+     * @return Row by row writer for the stream
+     */
+    public CsvWriter createWriter(OutputStream os, Charset charset) {
+        return new CsvWriter(new OutputStreamWriter(os, charset), this);
     }
 
     /**
-     * Replaces all the occurences of <code>replace</code> in <code>original</code> by <code>
-     * replacement</code>.
+     * Creates a streaming reader which splits the rows of a file with the delimiters of this
+     * parser. Compressed files are decompressed on a separate thread.
      *
-     * @param original The original string
-     * @param replace The substring to be replaced
-     * @param replacement The replacement string
-     * @return The modified string
+     * @param is Stream to read the CSV file from
+     * @return Row by row reader for the stream
      */
-    private String replaceAll(String original, String replace, String replacement) {
-        StringBuilder sb = new StringBuilder(original.length());
-        int start = 0, end;
-        while ((end = original.indexOf(replace, start)) > -1) {
-            sb.append(original.substring(start, end)).append(replacement);
-            start = end + replace.length();
+    public CsvReader createReader(InputStream is) {
+        return createReader(is, charset);
+    }
+
+    /**
+     * Creates a streaming reader which splits the rows of a file with the delimiters of this
+     * parser. Files in ASCII compatible encodings are split without being decoded, and compressed
+     * files are decompressed on a separate thread.
+     *
+     * @param is Stream to read the CSV file from
+     * @param charset Encoding of the file
+     * @return Row by row reader for the stream
+     */
+    public CsvReader createReader(InputStream is, Charset charset) {
+        is = Compression.decompress(is);
+        if (ByteRecordScanner.supports(charset)) {
+            return new CsvReader(new StreamRecordScanner(is, getFieldSeparator(),
+                    getTextDelimiter(), charset));
         }
-        sb.append(original.substring(start));
-        return sb.toString();
+        return new CsvReader(new CharRecordScanner(new InputStreamReader(is, charset),
+                getFieldSeparator(), getTextDelimiter()));
+    }
+
+    /**
+     * Creates a streaming reader which splits the rows of a file with the delimiters of this
+     * parser. The file is read as a stream, as with {@link #createReader(InputStream)}.
+     *
+     * @param channel Channel to read the CSV file from, starting at its current position
+     * @return Row by row reader for the file
+     * @throws IOException If the file cannot be read
+     */
+    public CsvReader createReader(FileChannel channel) throws IOException {
+        return createReader(Channels.newInputStream(channel));
     }
 
     /**
@@ -170,4 +322,117 @@ public class CustomDelimitersCsvParser implements CsvParser {
     public String getTextDelimiter() {
         return new String(textDelimiter);
     }
+
+    /**
+     * Encoding used to read and write files, unless another one is given.
+     *
+     * @return Encoding of the files
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * How the first row of the loaded files is handled.
+     *
+     * @return Header mode
+     */
+    public HeaderMode getHeaderMode() {
+        return headerMode;
+    }
+
+    /**
+     * Columns of the files which are loaded.
+     *
+     * @return Projection, or <code>null</code> if all the columns are loaded
+     */
+    public Projection getProjection() {
+        return projection;
+    }
+
+    /**
+     * Listener notified of the metrics of the files which are loaded and written.
+     *
+     * @return Listener, or <code>null</code> if no metric is collected
+     */
+    public CsvListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Compression of the files which are written. The compression of the files which are read is
+     * detected from their content.
+     *
+     * @return Compression of the written files
+     */
+    public Compression getCompression() {
+        return compression;
+    }
+
+    /**
+     * Filter of the rows of the files which are loaded.
+     *
+     * @return Filter, or <code>null</code> if all the rows are loaded
+     */
+    public RowFilter getRowFilter() {
+        return filter;
+    }
+
+    /**
+     * Creates a copy of this parser which handles the first row of the loaded files with the
+     * given mode.
+     *
+     * @param headerMode Header mode
+     * @return Parser with the given header mode
+     */
+    public CustomDelimitersCsvParser withHeaderMode(HeaderMode headerMode) {
+        return new CustomDelimitersCsvParser(getFieldSeparator(), getTextDelimiter(), charset,
+                headerMode, projection, filter, compression, listener);
+    }
+
+    /**
+     * Creates a copy of this parser which loads only the given columns of the files.
+     *
+     * @param projection Projection, or <code>null</code> to load all the columns
+     * @return Parser with the given projection
+     */
+    public CustomDelimitersCsvParser withProjection(Projection projection) {
+        return new CustomDelimitersCsvParser(getFieldSeparator(), getTextDelimiter(), charset,
+                headerMode, projection, filter, compression, listener);
+    }
+
+    /**
+     * Creates a copy of this parser which loads only the rows of the files accepted by the given
+     * filter.
+     *
+     * @param filter Filter, or <code>null</code> to load all the rows
+     * @return Parser with the given filter
+     */
+    public CustomDelimitersCsvParser withRowFilter(RowFilter filter) {
+        return new CustomDelimitersCsvParser(getFieldSeparator(), getTextDelimiter(), charset,
+                headerMode, projection, filter, compression, listener);
+    }
+
+    /**
+     * Creates a copy of this parser which writes files with the given compression.
+     *
+     * @param compression Compression of the written files
+     * @return Parser with the given compression
+     */
+    public CustomDelimitersCsvParser withCompression(Compression compression) {
+        return new CustomDelimitersCsvParser(getFieldSeparator(), getTextDelimiter(), charset,
+                headerMode, projection, filter, compression, listener);
+    }
+
+    /**
+     * Creates a copy of this parser which notifies the given listener of the metrics of the files
+     * loaded and written.
+     *
+     * @param listener Listener, or <code>null</code> to collect no metric
+     * @return Parser with the given listener
+     */
+    public CustomDelimitersCsvParser withListener(CsvListener listener) {
+        return new CustomDelimitersCsvParser(getFieldSeparator(), getTextDelimiter(), charset,
+                headerMode, projection, filter, compression, listener);
+    }
 }
@@ -0,0 +1,157 @@
+package com.douglasjose.tech.csv;
+
+/**
+ * Column oriented implementation of the {@link com.douglasjose.tech.csv.Csv} interface.
+ * Stores the content of the Csv as one growable array per column, so reading a position is a
+ * plain array access and no per-cell objects besides the content itself are kept in memory.
+ * Best suited for files where most of the positions are filled.
+ *
+ * @author Douglas Rodrigues
+ */
+public class DenseCsv extends AbstractCsv {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Content indexed by [column][row]; a null element means an empty position, a null
+    // column means no position of the column was ever filled
+    private String[][] data;
+    // Number of filled positions in each row and in each column
+    private int[] rowCounts;
+    private int[] columnCounts;
+
+    private int columns;
+    private int rows;
+
+    protected DenseCsv(CsvParser parser) {
+        super(parser);
+        clear();
+    }
+
+    /**
+     * Add the content to the position [row, column] of the file.
+     * Silently replaces existing content.
+     *
+     * @param row Zero-based row index
+     * @param column Zero-based column index
+     * @param content String to be stored
+     */
+    public void add(int row, int column, String content) {
+        if (row < 0 || column < 0) {
+            throw new IndexOutOfBoundsException("Invalid CSV position: [" + row + ","
+                    + column + "]");
+        }
+        if (column >= data.length) {
+            growColumns(column + 1);
+        }
+        String[] columnData = data[column];
+        if (columnData == null) {
+            // New columns are sized for the rows seen so far, as they are likely to be filled
+            columnData = new String[Math.max(Math.max(rows, row + 1), INITIAL_CAPACITY)];
+            data[column] = columnData;
+        } else if (row >= columnData.length) {
+            columnData = grow(columnData, row + 1);
+            data[column] = columnData;
+        }
+        if (row >= rowCounts.length) {
+            rowCounts = grow(rowCounts, row + 1);
+        }
+        if (columnData[row] == null) {
+            rowCounts[row]++;
+            columnCounts[column]++;
+        }
+        columnData[row] = content != null ? content : "";
+        columns = Math.max(columns, column + 1);
+        rows = Math.max(rows, row + 1);
+    }
+
+    /**
+     * Reads the content in the position [row, column] of the file. Return the empty String if there
+     * is no content in the given position.
+     * @param row Zero-based row index
+     * @param column Zero-based column index
+     * @return The content at a given position.
+     */
+    public String get(int row, int column) {
+        if (row < 0 || column < 0 || row >= this.rows || column >= this.columns) {
+            throw new IndexOutOfBoundsException("Invalid CSV position: [" + row + ","
+                    + column + "]");
+        }
+        String[] columnData = data[column];
+        if (columnData != null && row < columnData.length) {
+            String value = columnData[row];
+            if (value != null) {
+                return value;
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Removes the content from the position [row, column].
+     * @param row Zero-based row index
+     * @param column Zero-based column index
+     * @return If the operation modified the data structure
+     */
+    public boolean remove(int row, int column) {
+        if (row < 0 || column < 0 || column >= data.length || data[column] == null
+                || row >= data[column].length || data[column][row] == null) {
+            return false;
+        }
+        data[column][row] = null;
+        rowCounts[row]--;
+        columnCounts[column]--;
+        while (rows > 0 && rowCounts[rows - 1] == 0) {
+            rows--;
+        }
+        while (columns > 0 && columnCounts[columns - 1] == 0) {
+            columns--;
+        }
+        return true;
+    }
+
+    protected void clear() {
+        data = new String[0][];
+        rowCounts = new int[INITIAL_CAPACITY];
+        columnCounts = new int[0];
+        rows = 0;
+        columns = 0;
+    }
+
+    /**
+     * @return Number of columns in the file
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return Number of lines in the file
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    private void growColumns(int minColumns) {
+        int capacity = newCapacity(data.length, minColumns);
+        String[][] newData = new String[capacity][];
+        System.arraycopy(data, 0, newData, 0, data.length);
+        data = newData;
+        columnCounts = grow(columnCounts, capacity);
+    }
+
+    private static String[] grow(String[] array, int minLength) {
+        String[] newArray = new String[newCapacity(array.length, minLength)];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        return newArray;
+    }
+
+    private static int[] grow(int[] array, int minLength) {
+        int[] newArray = new int[newCapacity(array.length, minLength)];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        return newArray;
+    }
+
+    private static int newCapacity(int length, int minLength) {
+        return Math.max(minLength, length + (length >> 1) + 1);
+    }
+}
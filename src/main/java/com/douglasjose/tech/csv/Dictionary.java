@@ -0,0 +1,103 @@
+package com.douglasjose.tech.csv;
+
+import java.util.Arrays;
+
+/**
+ * Set of the distinct values of a column, each identified by a sequential code.
+ * Values are looked up by their characters, so a field read as a view over the parser buffer
+ * is only copied into a <code>String</code> the first time its value is seen.
+ *
+ * @author Douglas Rodrigues
+ */
+final class Dictionary {
+
+    private String[] values = new String[16];
+    private int[] hashes = new int[16];
+    private int size = 0;
+    // Open addressing hash table of codes plus one; zero marks a free slot
+    private int[] table = new int[32];
+
+    /**
+     * Finds the code of a value, adding the value to the dictionary if it is not there yet.
+     *
+     * @param value Content of the field
+     * @return Code of the value
+     */
+    int encode(CharSequence value) {
+        int hash = hash(value);
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != 0) {
+            int code = table[slot] - 1;
+            if (hashes[code] == hash && contentEquals(values[code], value)) {
+                return code;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int code = size++;
+        if (code == values.length) {
+            values = Arrays.copyOf(values, code * 2);
+            hashes = Arrays.copyOf(hashes, code * 2);
+        }
+        values[code] = value.toString();
+        hashes[code] = hash;
+        table[slot] = code + 1;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return code;
+    }
+
+    /**
+     * @param code Code of a value
+     * @return The value
+     */
+    String decode(int code) {
+        return values[code];
+    }
+
+    /**
+     * @return Number of distinct values
+     */
+    int size() {
+        return size;
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        int mask = table.length - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = hashes[code] & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = code + 1;
+        }
+    }
+
+    // Same as String.hashCode(), spread so that the low bits used by the table vary
+    private static int hash(CharSequence value) {
+        int hash;
+        if (value instanceof String) {
+            hash = value.hashCode();
+        } else {
+            hash = 0;
+            for (int i = 0; i < value.length(); i++) {
+                hash = 31 * hash + value.charAt(i);
+            }
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean contentEquals(String s, CharSequence value) {
+        if (s.length() != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,278 @@
+package com.douglasjose.tech.csv;
+
+/**
+ * Decodes the content of fields into primitive values, reading the characters directly from a
+ * <code>CharSequence</code> so that fields read as views over a reader buffer are never copied
+ * into a <code>String</code>.
+ *
+ * @author Douglas Rodrigues
+ */
+final class FieldDecoder {
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    // Powers of ten which are exactly representable as doubles
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // Largest number of significant digits whose value is exactly representable as a double
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    private FieldDecoder() {} // Do not instantiate this class
+
+    static int parseInt(CharSequence s) {
+        long value = parseLong(s);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw invalid(s, "int");
+        }
+        return (int) value;
+    }
+
+    static long parseLong(CharSequence s) {
+        int length = s.length();
+        if (length == 0) {
+            throw invalid(s, "long");
+        }
+        int i = 0;
+        boolean negative = false;
+        char first = s.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+            if (length == 1) {
+                throw invalid(s, "long");
+            }
+        }
+        // Accumulated negatively, as the magnitude of Long.MIN_VALUE exceeds Long.MAX_VALUE
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyLimit = limit / 10;
+        long result = 0;
+        for (; i < length; i++) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || result < multiplyLimit) {
+                throw invalid(s, "long");
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw invalid(s, "long");
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * Decodes plain decimal numbers with up to 15 significant digits without any allocation;
+     * other numbers are decoded by <code>Double.parseDouble</code>.
+     */
+    static double parseDouble(CharSequence s) {
+        int length = s.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (s.charAt(0) == '-' || s.charAt(0) == '+')) {
+            negative = s.charAt(0) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int significantDigits = 0;
+        int fractionDigits = 0;
+        boolean digits = false;
+        boolean point = false;
+        for (; i < length; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) {
+                    significantDigits++;
+                }
+                if (point) {
+                    fractionDigits++;
+                }
+                if (significantDigits > MAX_EXACT_DIGITS || fractionDigits >= POWERS_OF_TEN.length) {
+                    return parseDoubleSlow(s);
+                }
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                // Exponents, special values and malformed content
+                return parseDoubleSlow(s);
+            }
+        }
+        if (!digits) {
+            return parseDoubleSlow(s);
+        }
+        // Both operands are exact, so the division is correctly rounded
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private static double parseDoubleSlow(CharSequence s) {
+        try {
+            return Double.parseDouble(s.toString());
+        } catch (NumberFormatException e) {
+            throw invalid(s, "double");
+        }
+    }
+
+    static boolean parseBoolean(CharSequence s) {
+        if (equalsIgnoreCase(s, "true")) {
+            return true;
+        }
+        if (equalsIgnoreCase(s, "false")) {
+            return false;
+        }
+        throw new IllegalArgumentException("Invalid boolean: [" + s + "]");
+    }
+
+    /**
+     * Decodes dates in the format <code>yyyy-MM-dd[(T| )HH:mm[:ss[.SSS]]][Z]</code>, in UTC.
+     *
+     * @return Milliseconds since the epoch
+     */
+    static long parseDate(CharSequence s) {
+        int length = s.length();
+        if (length > 0 && s.charAt(length - 1) == 'Z') {
+            length--;
+        }
+        if (length < 10 || s.charAt(4) != '-' || s.charAt(7) != '-') {
+            throw invalidDate(s);
+        }
+        int year = digits(s, 0, 4);
+        int month = digits(s, 5, 2);
+        int day = digits(s, 8, 2);
+        if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+            throw invalidDate(s);
+        }
+        long millis = daysFromCivil(year, month, day) * MILLIS_PER_DAY;
+        if (length == 10) {
+            return millis;
+        }
+        char separator = s.charAt(10);
+        if (length < 16 || (separator != 'T' && separator != ' ') || s.charAt(13) != ':') {
+            throw invalidDate(s);
+        }
+        int hour = digits(s, 11, 2);
+        int minute = digits(s, 14, 2);
+        int second = 0;
+        int milli = 0;
+        if (length > 16) {
+            if (length < 19 || s.charAt(16) != ':') {
+                throw invalidDate(s);
+            }
+            second = digits(s, 17, 2);
+            if (length > 19) {
+                if (length != 23 || s.charAt(19) != '.') {
+                    throw invalidDate(s);
+                }
+                milli = digits(s, 20, 3);
+            }
+        }
+        if (hour > 23 || minute > 59 || second > 59) {
+            throw invalidDate(s);
+        }
+        return millis + ((hour * 60L + minute) * 60 + second) * 1000 + milli;
+    }
+
+    /**
+     * Formats dates as <code>yyyy-MM-dd</code> at midnight, and as
+     * <code>yyyy-MM-dd'T'HH:mm:ss[.SSS]'Z'</code> otherwise.
+     *
+     * @param millis Milliseconds since the epoch
+     * @return ISO 8601 representation of the date in UTC
+     */
+    static String formatDate(long millis) {
+        long days = millis / MILLIS_PER_DAY;
+        long millisOfDay = millis % MILLIS_PER_DAY;
+        if (millisOfDay < 0) {
+            days--;
+            millisOfDay += MILLIS_PER_DAY;
+        }
+        // Inverse of daysFromCivil
+        long z = days + 719468;
+        long era = (z >= 0 ? z : z - 146096) / 146097;
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        long day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        long month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        StringBuilder sb = new StringBuilder(24);
+        pad(sb, year, 4).append('-');
+        pad(sb, month, 2).append('-');
+        pad(sb, day, 2);
+        if (millisOfDay != 0) {
+            sb.append('T');
+            pad(sb, millisOfDay / 3600000, 2).append(':');
+            pad(sb, millisOfDay / 60000 % 60, 2).append(':');
+            pad(sb, millisOfDay / 1000 % 60, 2);
+            if (millisOfDay % 1000 != 0) {
+                pad(sb.append('.'), millisOfDay % 1000, 3);
+            }
+            sb.append('Z');
+        }
+        return sb.toString();
+    }
+
+    // Days since 1970-01-01 in the proleptic Gregorian calendar
+    private static long daysFromCivil(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        if (month == 2) {
+            boolean leap = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+            return leap ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    private static int digits(CharSequence s, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalidDate(s);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static StringBuilder pad(StringBuilder sb, long value, int width) {
+        String digits = Long.toString(value);
+        for (int i = digits.length(); i < width; i++) {
+            sb.append('0');
+        }
+        return sb.append(digits);
+    }
+
+    private static boolean equalsIgnoreCase(CharSequence s, String expected) {
+        if (s.length() != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (Character.toLowerCase(s.charAt(i)) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static NumberFormatException invalid(CharSequence s, String type) {
+        return new NumberFormatException("Invalid " + type + ": [" + s + "]");
+    }
+
+    private static IllegalArgumentException invalidDate(CharSequence s) {
+        return new IllegalArgumentException("Invalid date: [" + s + "]");
+    }
+}
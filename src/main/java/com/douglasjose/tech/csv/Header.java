@@ -0,0 +1,62 @@
+package com.douglasjose.tech.csv;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable names of the columns of a CSV file, usually read from its first row.
+ * Names are resolved to column indexes through a table built once, when the header is created.
+ * If several columns have the same name, the name refers to the first of them.
+ *
+ * @author Douglas Rodrigues
+ */
+public final class Header {
+
+    private final String[] names;
+    private final Map<String, Integer> indexes;
+
+    /**
+     * @param names Names of the columns, in the order they appear in the file
+     */
+    public Header(String... names) {
+        this.names = names.clone();
+        this.indexes = new HashMap<String, Integer>(names.length * 2);
+        for (int i = this.names.length - 1; i >= 0; i--) {
+            if (this.names[i] == null) {
+                throw new IllegalArgumentException("Invalid column name at index " + i);
+            }
+            indexes.put(this.names[i], i);
+        }
+    }
+
+    /**
+     * @return Number of named columns
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @param column Zero-based column index
+     * @return Name of the column
+     */
+    public String getName(int column) {
+        return names[column];
+    }
+
+    /**
+     * @param name Name of the column
+     * @return Zero-based index of the column, or -1 if there is no column with the given name
+     */
+    public int indexOf(String name) {
+        Integer index = indexes.get(name);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * @return A copy of the names of the columns
+     */
+    public String[] toArray() {
+        return names.clone();
+    }
+}
@@ -0,0 +1,26 @@
+package com.douglasjose.tech.csv;
+
+/**
+ * How a {@link com.douglasjose.tech.csv.CustomDelimitersCsvParser} handles the first row of the
+ * files it loads.
+ *
+ * @author Douglas Rodrigues
+ */
+public enum HeaderMode {
+
+    /**
+     * Every row of the file is data.
+     */
+    NONE,
+
+    /**
+     * The first row of the file holds the names of the columns.
+     */
+    FIRST_ROW,
+
+    /**
+     * The first row holds the names of the columns if all its fields are distinct, non empty,
+     * and neither numbers nor dates, while the second row has at least one number or date.
+     */
+    DETECT
+}
@@ -0,0 +1,273 @@
+package com.douglasjose.tech.csv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.Map;
+
+/**
+ * <code>Csv</code> decorator which keeps indexes of the rows by the content of some columns, so
+ * rows can be found by key without scanning the whole column.
+ * Hash indexes find the rows holding a given value in constant time; sorted indexes also find
+ * the rows holding values within a range. The indexes are updated by every call to
+ * {@link #add(int, int, String)} and {@link #remove(int, int)}, and rebuilt when a file is
+ * loaded, so the wrapped <code>Csv</code> must not be modified directly.
+ * Empty fields are not indexed.
+ * <p>
+ * As the wrapped data structure, this class is not thread-safe; lookups may be done
+ * concurrently as long as the content is not modified.
+ *
+ * @author Douglas Rodrigues
+ */
+public class IndexedCsv implements Csv {
+
+    private final Csv csv;
+    private final Map<Integer, ColumnIndex> indexes = new HashMap<Integer, ColumnIndex>();
+
+    protected IndexedCsv(Csv csv) {
+        if (csv == null) {
+            throw new IllegalArgumentException("Invalid CSV: [" + csv + "]");
+        }
+        this.csv = csv;
+    }
+
+    /**
+     * Creates a hash index on a column, replacing any existing index on it.
+     *
+     * @param column Zero-based column index
+     */
+    public void createIndex(int column) {
+        buildIndex(column, ColumnIndex.hash());
+    }
+
+    /**
+     * Creates a sorted index on a column, ordering the values as Strings, and replacing any
+     * existing index on it.
+     *
+     * @param column Zero-based column index
+     */
+    public void createSortedIndex(int column) {
+        createSortedIndex(column, null);
+    }
+
+    /**
+     * Creates a sorted index on a column, replacing any existing index on it.
+     *
+     * @param column Zero-based column index
+     * @param comparator Order of the values, or <code>null</code> to order them as Strings
+     */
+    public void createSortedIndex(int column, Comparator<? super String> comparator) {
+        buildIndex(column, ColumnIndex.sorted(comparator));
+    }
+
+    /**
+     * Removes the index of a column.
+     *
+     * @param column Zero-based column index
+     * @return If the column had an index
+     */
+    public boolean dropIndex(int column) {
+        return indexes.remove(column) != null;
+    }
+
+    /**
+     * Finds the rows holding a given value in an indexed column.
+     *
+     * @param column Zero-based column index
+     * @param value Content of the field
+     * @return Ascending row numbers
+     */
+    public int[] find(int column, String value) {
+        return index(column).find(value);
+    }
+
+    /**
+     * Finds the first row holding a given value in an indexed column. Unlike
+     * {@link #find(int, String)}, no array is created, which suits lookups by unique keys.
+     *
+     * @param column Zero-based column index
+     * @param value Content of the field
+     * @return Row number, or -1 if no row holds the value
+     */
+    public int findFirst(int column, String value) {
+        return index(column).first(value);
+    }
+
+    /**
+     * Finds the rows holding values within a range in a column with a sorted index.
+     *
+     * @param column Zero-based column index
+     * @param from Smallest value, inclusive
+     * @param to Largest value, inclusive
+     * @return Row numbers, ordered by value and then ascending
+     */
+    public int[] findRange(int column, String from, String to) {
+        ColumnIndex index = index(column);
+        if (!index.isSorted()) {
+            throw new IllegalStateException("Column " + column + " has no sorted index");
+        }
+        return index.findRange(from, to);
+    }
+
+    public void add(int row, int column, String content) {
+        ColumnIndex index = indexes.get(column);
+        if (index == null) {
+            csv.add(row, column, content);
+            return;
+        }
+        String previous = contentAt(row, column);
+        csv.add(row, column, content);
+        index.remove(previous, row);
+        index.add(csv.get(row, column), row);
+    }
+
+    public void addRow(int row, String... fields) {
+        if (indexes.isEmpty()) {
+            csv.addRow(row, fields);
+            return;
+        }
+        Map<Integer, String> previous = new HashMap<Integer, String>();
+        for (Integer column : indexes.keySet()) {
+            if (column < fields.length) {
+                previous.put(column, contentAt(row, column));
+            }
+        }
+        csv.addRow(row, fields);
+        for (Map.Entry<Integer, String> entry : previous.entrySet()) {
+            ColumnIndex index = indexes.get(entry.getKey());
+            index.remove(entry.getValue(), row);
+            index.add(csv.get(row, entry.getKey()), row);
+        }
+    }
+
+    public String get(int row, int column) {
+        return csv.get(row, column);
+    }
+
+    public Row getRow(int row) {
+        return csv.getRow(row);
+    }
+
+    public Iterator<Row> iterator() {
+        return csv.iterator();
+    }
+
+    public Spliterator<Row> spliterator() {
+        return csv.spliterator();
+    }
+
+    public Stream<Row> rows() {
+        return csv.rows();
+    }
+
+    public String get(int row, String column) {
+        return csv.get(row, column);
+    }
+
+    public boolean remove(int row, int column) {
+        ColumnIndex index = indexes.get(column);
+        String previous = index != null ? contentAt(row, column) : null;
+        boolean removed = csv.remove(row, column);
+        if (removed && index != null) {
+            index.remove(previous, row);
+        }
+        return removed;
+    }
+
+    public boolean removeRow(int row) {
+        return removeRange(row, 0, row + 1, Integer.MAX_VALUE);
+    }
+
+    public boolean removeColumn(int column) {
+        return removeRange(0, column, Integer.MAX_VALUE, column + 1);
+    }
+
+    public boolean removeRange(int fromRow, int fromColumn, int toRow, int toColumn) {
+        AbstractCsv.checkRange(fromRow, fromColumn, toRow, toColumn);
+        int lastRow = Math.min(toRow, csv.getRows());
+        for (Map.Entry<Integer, ColumnIndex> entry : indexes.entrySet()) {
+            int column = entry.getKey();
+            if (column >= fromColumn && column < toColumn && column < csv.getColumns()) {
+                for (int row = fromRow; row < lastRow; row++) {
+                    entry.getValue().remove(csv.get(row, column), row);
+                }
+            }
+        }
+        return csv.removeRange(fromRow, fromColumn, toRow, toColumn);
+    }
+
+    public void load(InputStream is) throws IOException {
+        csv.load(is);
+        rebuildIndexes();
+    }
+
+    public void load(Path path) throws IOException {
+        csv.load(path);
+        rebuildIndexes();
+    }
+
+    public void store(OutputStream os) throws IOException {
+        csv.store(os);
+    }
+
+    public Header getHeader() {
+        return csv.getHeader();
+    }
+
+    public void setHeader(Header header) {
+        csv.setHeader(header);
+    }
+
+    public int getColumns() {
+        return csv.getColumns();
+    }
+
+    public int getRows() {
+        return csv.getRows();
+    }
+
+    private ColumnIndex index(int column) {
+        ColumnIndex index = indexes.get(column);
+        if (index == null) {
+            throw new IllegalStateException("Column " + column + " has no index");
+        }
+        return index;
+    }
+
+    private String contentAt(int row, int column) {
+        return row >= 0 && column >= 0 && row < csv.getRows() && column < csv.getColumns()
+                ? csv.get(row, column) : "";
+    }
+
+    private void buildIndex(int column, ColumnIndex index) {
+        if (column < 0) {
+            throw new IndexOutOfBoundsException("Invalid column: " + column);
+        }
+        fill(column, index);
+        indexes.put(column, index);
+    }
+
+    private void rebuildIndexes() {
+        for (Map.Entry<Integer, ColumnIndex> entry : indexes.entrySet()) {
+            ColumnIndex index = entry.getValue().emptyCopy();
+            fill(entry.getKey(), index);
+            entry.setValue(index);
+        }
+    }
+
+    private void fill(int column, ColumnIndex index) {
+        if (column >= csv.getColumns()) {
+            return;
+        }
+        int rows = csv.getRows();
+        for (int row = 0; row < rows; row++) {
+            index.add(csv.get(row, column), row);
+        }
+    }
+}
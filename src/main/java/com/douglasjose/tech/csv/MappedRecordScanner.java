@@ -0,0 +1,73 @@
+package com.douglasjose.tech.csv;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Byte scanner which reads a region of a file through memory mapped windows. Files larger than a
+ * window (including files over 2 GB) are mapped one window at a time. The windows are copied into
+ * the scan buffer like any other source, since fields are unescaped in place, so mapping is no
+ * faster than a buffered stream. It is only used to scan from arbitrary offsets: several scanners
+ * split different parts of the same file concurrently, and a growing file is resumed from the
+ * end of its last complete record.
+ *
+ * @author Douglas Rodrigues
+ */
+class MappedRecordScanner extends ByteRecordScanner {
+
+    static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final FileChannel channel;
+    // Position after the last byte to be scanned
+    private final long end;
+    private final int windowSize;
+
+    // Position of the current window in the file
+    private long windowStart;
+    private ByteBuffer window;
+
+    /**
+     * Creates a scanner for a region of a file.
+     *
+     * @param channel Channel of the file
+     * @param start Position of the first byte of the region; must be the beginning of a record
+     * @param end Position after the last byte of the region; must be the end of a record
+     * @param fieldSeparator String used to separate fields in the file
+     * @param textDelimiter String used as text delimiter
+     * @param charset Encoding of the file
+     * @param windowSize Size of the mapped windows
+     * @throws IOException If the file cannot be mapped
+     */
+    MappedRecordScanner(FileChannel channel, long start, long end, String fieldSeparator,
+                        String textDelimiter, Charset charset, int windowSize) throws IOException {
+        super(fieldSeparator, textDelimiter, charset);
+        this.channel = channel;
+        this.end = end;
+        this.windowSize = windowSize;
+        map(start);
+    }
+
+    protected int read(byte[] buffer, int offset, int length) throws IOException {
+        if (!window.hasRemaining()) {
+            long next = windowStart + window.limit();
+            if (next >= end) {
+                return -1;
+            }
+            map(next);
+        }
+        int read = Math.min(length, window.remaining());
+        window.get(buffer, offset, read);
+        return read;
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(end - start, windowSize));
+    }
+}
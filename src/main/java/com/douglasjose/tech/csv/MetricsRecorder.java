@@ -0,0 +1,73 @@
+package com.douglasjose.tech.csv;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Collects the metrics of a single load or write. Only created when the parser has a listener,
+ * so that parsers without one do not pay for the measurements.
+ *
+ * @author Douglas Rodrigues
+ */
+final class MetricsRecorder {
+
+    private final long start = System.nanoTime();
+
+    long records = 0;
+    long rows = 0;
+    long fields = 0;
+    long quotedFields = 0;
+    long bytes = 0;
+    long csvNanos = 0;
+
+    /**
+     * @return Metrics of the operation, which ends now
+     */
+    CsvMetrics toMetrics() {
+        return new CsvMetrics(records, rows, fields, quotedFields, bytes,
+                System.nanoTime() - start, csvNanos);
+    }
+
+    /**
+     * Wraps a stream so that the bytes read from it are counted.
+     */
+    InputStream count(InputStream is) {
+        return new FilterInputStream(is) {
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    bytes++;
+                }
+                return b;
+            }
+
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = super.read(b, off, len);
+                if (read > 0) {
+                    bytes += read;
+                }
+                return read;
+            }
+        };
+    }
+
+    /**
+     * Wraps a stream so that the bytes written to it are counted.
+     */
+    OutputStream count(OutputStream os) {
+        return new FilterOutputStream(os) {
+            public void write(int b) throws IOException {
+                out.write(b);
+                bytes++;
+            }
+
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                bytes += len;
+            }
+        };
+    }
+}
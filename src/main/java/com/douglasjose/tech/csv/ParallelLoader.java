@@ -0,0 +1,370 @@
+package com.douglasjose.tech.csv;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Loads a file by splitting it in byte ranges which are parsed concurrently.
+ * <p>
+ * A range can only be parsed from the beginning of a record, and a line terminator within a text
+ * delimiter does not end a record, so the ranges are resynchronized in three steps:
+ * <ol>
+ * <li>the text delimiters in each range are counted concurrently;</li>
+ * <li>as every text delimiter flips the literal state, the parity of the counts of the previous
+ * ranges tells whether a range starts within a literal, and the first record boundary of each
+ * range is located from there;</li>
+ * <li>the records between two boundaries are parsed concurrently, and stored in the
+ * <code>Csv</code> in file order by the calling thread.</li>
+ * </ol>
+ * The parsed rows of a range are buffered until they are stored. Only one more range than the
+ * parallelism of the pool is parsed ahead of the range being stored.
+ * Counting is only exact when occurrences of the text delimiter cannot overlap each other, which
+ * is checked by {@link #supports(String, java.nio.charset.Charset)}.
+ *
+ * @author Douglas Rodrigues
+ */
+class ParallelLoader {
+
+    private final String fieldSeparator;
+    private final String textDelimiter;
+    private final byte[] delimiter;
+    private final Charset charset;
+
+    ParallelLoader(String fieldSeparator, String textDelimiter, Charset charset) {
+        this.fieldSeparator = fieldSeparator;
+        this.textDelimiter = textDelimiter;
+        this.delimiter = textDelimiter.getBytes(charset);
+        this.charset = charset;
+    }
+
+    /**
+     * Checks if files with a given text delimiter and encoding can be split in ranges.
+     *
+     * @param textDelimiter String used as text delimiter
+     * @param charset Encoding of the file
+     * @return If the file can be loaded in parallel
+     */
+    static boolean supports(String textDelimiter, Charset charset) {
+        if (!ByteRecordScanner.supports(charset)) {
+            return false;
+        }
+        byte[] pattern = textDelimiter.getBytes(charset);
+        for (int length = 1; length < pattern.length; length++) {
+            boolean overlaps = true;
+            for (int i = 0; i < length && overlaps; i++) {
+                overlaps = pattern[i] == pattern[pattern.length - length + i];
+            }
+            if (overlaps) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Loads a file into a <code>Csv</code> data structure.
+     *
+     * @param loader Loader storing the records in the destination data structure
+     * @param channel Channel to read the data from, starting at its current position
+     * @param pool Pool running the parsing tasks
+     * @param rangeSize Size of the byte ranges; should not exceed the size of a mapped window
+     * @param recorder Recorder of the metrics of the load, or <code>null</code>
+     * @throws IOException If the data cannot be read
+     */
+    void load(RecordLoader loader, FileChannel channel, ForkJoinPool pool, long rangeSize,
+              MetricsRecorder recorder) throws IOException {
+        long size = channel.size();
+        long start = channel.position();
+        int ranges = (int) Math.max(1, (size - start + rangeSize - 1) / rangeSize);
+        long[] nominal = new long[ranges + 1];
+        for (int i = 0; i < ranges; i++) {
+            nominal[i] = start + i * rangeSize;
+        }
+        nominal[ranges] = size;
+
+        List<ForkJoinTask<Long>> counters = new ArrayList<ForkJoinTask<Long>>();
+        for (int i = 0; i < ranges - 1; i++) {
+            counters.add(pool.submit(new DelimiterCounter(channel, nominal[i], nominal[i + 1], size)));
+        }
+        List<ForkJoinTask<ParsedRange>> parsers = new ArrayList<ForkJoinTask<ParsedRange>>();
+        try {
+            long[] boundaries = new long[ranges + 1];
+            boundaries[0] = start;
+            boundaries[ranges] = size;
+            boolean literal = false;
+            for (int i = 1; i < ranges; i++) {
+                literal ^= (counters.get(i - 1).get() & 1) == 1;
+                boundaries[i] = Math.max(boundaries[i - 1],
+                        findRecordStart(channel, nominal[i], literal, size));
+            }
+            // Records are filtered and fields left out by the projection are not copied by the
+            // tasks, except for the records which may hold the header
+            boolean[] columns = loader.getColumnMask();
+            int leadingRecords = loader.getLeadingRecords();
+            List<RangeParser> pending = new ArrayList<RangeParser>();
+            for (int i = 0; i < ranges; i++) {
+                if (boundaries[i] < boundaries[i + 1]) {
+                    pending.add(new RangeParser(channel, boundaries[i], boundaries[i + 1],
+                            columns, loader.getFilter(), pending.isEmpty() ? leadingRecords : 0));
+                }
+            }
+            // Only enough ranges to keep the pool busy are parsed ahead of the one being stored,
+            // and each range is released once stored, so the parsed rows are not all held at once
+            int ahead = pool.getParallelism() + 1;
+            for (int i = 0; i < pending.size() && i < ahead; i++) {
+                parsers.add(pool.submit(pending.get(i)));
+            }
+            int rowOffset = 0;
+            for (int i = 0; i < pending.size(); i++) {
+                ParsedRange range = parsers.get(i).get();
+                parsers.set(i, null);
+                if (i + ahead < pending.size()) {
+                    parsers.add(pool.submit(pending.get(i + ahead)));
+                }
+                long storeStart = recorder != null ? System.nanoTime() : 0;
+                List<String[]> rows = range.rows;
+                for (int j = 0; j < rows.size(); j++) {
+                    Row row = new Row(rowOffset++, rows.get(j));
+                    if (i == 0 && j < leadingRecords) {
+                        loader.add(row);
+                    } else {
+                        loader.addAccepted(row);
+                    }
+                }
+                if (recorder != null) {
+                    recorder.csvNanos += System.nanoTime() - storeStart;
+                    recorder.records += range.records;
+                    recorder.fields += range.fields;
+                    recorder.quotedFields += range.quotedFields;
+                }
+            }
+            loader.finish();
+        } catch (InterruptedException e) {
+            cancel(counters);
+            cancel(parsers);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading the file");
+        } catch (ExecutionException e) {
+            cancel(counters);
+            cancel(parsers);
+            throw failure(e);
+        }
+    }
+
+    /**
+     * Finds the exception thrown by a task, so that a parallel load fails with the same exception
+     * as a sequential one. The pool wraps checked exceptions in a <code>RuntimeException</code>,
+     * and may rethrow a copy of the exception of the same class, caused by the original one.
+     *
+     * @param e Failure of a task
+     * @return Exception to be thrown, if it is an <code>IOException</code>
+     */
+    private static IOException failure(ExecutionException e) {
+        Throwable cause = e.getCause();
+        while (cause.getCause() != null) {
+            Throwable next = cause.getCause();
+            boolean copy = next.getClass() == cause.getClass();
+            boolean wrapped = cause.getClass() == RuntimeException.class
+                    && !(next instanceof RuntimeException) && !(next instanceof Error);
+            if (!copy && !wrapped) {
+                break;
+            }
+            cause = next;
+        }
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IOException("Could not parse the file", cause);
+    }
+
+    private static void cancel(List<? extends ForkJoinTask<?>> tasks) {
+        for (ForkJoinTask<?> task : tasks) {
+            if (task != null) {
+                task.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Finds the beginning of the first record after a given position of the file.
+     *
+     * @param channel Channel of the file
+     * @param position Position in the file
+     * @param literal If the position is within a text delimiter
+     * @param size Size of the file
+     * @return Position of the first byte of the record, or the size of the file if there are no
+     * more records
+     * @throws IOException If the file cannot be read
+     */
+    private long findRecordStart(FileChannel channel, long position, boolean literal, long size)
+            throws IOException {
+        // Bytes which must be available to match the text delimiter or a "\r\n" terminator
+        int lookahead = Math.max(delimiter.length, 2);
+        long windowStart = position;
+        ByteBuffer window = map(channel, windowStart, size);
+        int i = 0;
+        while (true) {
+            if (window.limit() - i < lookahead && windowStart + window.limit() < size) {
+                windowStart += i;
+                window = map(channel, windowStart, size);
+                i = 0;
+            }
+            if (i >= window.limit()) {
+                return size;
+            }
+            if (startsWith(window, i, window.limit(), delimiter)) {
+                literal = !literal;
+                i += delimiter.length;
+                continue;
+            }
+            byte b = window.get(i++);
+            if (!literal && (b == '\n' || b == '\r')) {
+                if (b == '\r' && i < window.limit() && window.get(i) == '\n') {
+                    i++;
+                }
+                return windowStart + i;
+            }
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long start, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, start,
+                Math.min(size - start, MappedRecordScanner.WINDOW_SIZE));
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int offset, int end, byte[] pattern) {
+        if (offset + pattern.length > end) {
+            return false;
+        }
+        for (int i = 0; i < pattern.length; i++) {
+            if (buffer.get(offset + i) != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts the text delimiters starting within a range of the file.
+     */
+    private class DelimiterCounter implements Callable<Long> {
+
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+        private final long size;
+
+        DelimiterCounter(FileChannel channel, long start, long end, long size) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.size = size;
+        }
+
+        public Long call() throws IOException {
+            // The last delimiter of the range may finish after its end
+            long mapEnd = Math.min(size, end + delimiter.length - 1);
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, mapEnd - start);
+            int rangeLength = (int) (end - start);
+            int limit = buffer.limit();
+            long count = 0;
+            if (delimiter.length == 1) {
+                byte d = delimiter[0];
+                for (int i = 0; i < rangeLength; i++) {
+                    if (buffer.get(i) == d) {
+                        count++;
+                    }
+                }
+            } else {
+                int i = 0;
+                while (i < rangeLength) {
+                    if (startsWith(buffer, i, limit, delimiter)) {
+                        count++;
+                        i += delimiter.length;
+                    } else {
+                        i++;
+                    }
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Parses the records between two record boundaries of the file.
+     */
+    private class RangeParser implements Callable<ParsedRange> {
+
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+        // Copied columns, or null to copy all of them
+        private final boolean[] columns;
+        private final RowFilter filter;
+        // Number of leading records which are neither filtered nor projected
+        private final int fullRecords;
+
+        RangeParser(FileChannel channel, long start, long end, boolean[] columns,
+                    RowFilter filter, int fullRecords) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.columns = columns;
+            this.filter = filter;
+            this.fullRecords = fullRecords;
+        }
+
+        public ParsedRange call() throws IOException {
+            ParsedRange range = new ParsedRange();
+            List<String[]> rows = range.rows;
+            // The scanner is not closed, as the channel is shared with the other tasks
+            RecordScanner scanner = new MappedRecordScanner(channel, start, end, fieldSeparator,
+                    textDelimiter, charset, MappedRecordScanner.WINDOW_SIZE);
+            int records = 0;
+            while (scanner.next()) {
+                range.fields += scanner.size();
+                boolean leading = records++ < fullRecords;
+                if (!leading && filter != null && !filter.accept(scanner)) {
+                    continue;
+                }
+                String[] fields = new String[scanner.size()];
+                boolean full = columns == null || leading;
+                for (int i = 0; i < fields.length; i++) {
+                    if (full || (i < columns.length && columns[i])) {
+                        fields[i] = scanner.getString(i);
+                    }
+                }
+                rows.add(fields);
+            }
+            range.records = records;
+            range.quotedFields = scanner.getQuotedFields();
+            return range;
+        }
+    }
+
+    /**
+     * Rows parsed from a range of the file, and the counters of the records read from it.
+     */
+    private static class ParsedRange {
+
+        final List<String[]> rows = new ArrayList<String[]>();
+        int records;
+        long fields;
+        long quotedFields;
+    }
+}
@@ -0,0 +1,105 @@
+package com.douglasjose.tech.csv;
+
+import java.io.IOException;
+
+/**
+ * Selection of the columns of a file which are loaded into a <code>Csv</code>, given to a
+ * {@link com.douglasjose.tech.csv.CustomDelimitersCsvParser}.
+ * The selected columns are stored in the order of the selection, starting at column 0, and the
+ * other fields of the file are skipped without being copied.
+ * Columns may be selected by index, or by name when the files have a
+ * {@link com.douglasjose.tech.csv.Header}.
+ *
+ * @author Douglas Rodrigues
+ */
+public final class Projection {
+
+    private final int[] columns;
+    private final String[] names;
+
+    private Projection(int[] columns, String[] names) {
+        this.columns = columns;
+        this.names = names;
+    }
+
+    /**
+     * Selects columns by their index in the file.
+     *
+     * @param columns Zero-based indexes of the columns to be loaded
+     * @return Projection of the given columns
+     */
+    public static Projection ofColumns(int... columns) {
+        for (int column : columns) {
+            if (column < 0) {
+                throw new IllegalArgumentException("Invalid column: " + column);
+            }
+        }
+        return new Projection(columns.clone(), null);
+    }
+
+    /**
+     * Selects columns by their name in the header of the file. Loading a file without a header,
+     * or whose header lacks one of the names, fails.
+     *
+     * @param names Names of the columns to be loaded
+     * @return Projection of the given columns
+     */
+    public static Projection ofNames(String... names) {
+        for (String name : names) {
+            if (name == null) {
+                throw new IllegalArgumentException("Invalid column name: [" + name + "]");
+            }
+        }
+        return new Projection(null, names.clone());
+    }
+
+    /**
+     * @return Number of selected columns
+     */
+    public int size() {
+        return columns != null ? columns.length : names.length;
+    }
+
+    /**
+     * Resolves the selected columns in a file.
+     *
+     * @param header Header of the file, or <code>null</code> if it has none
+     * @return Indexes in the file of the selected columns, in the order of the selection
+     * @throws IOException If a column selected by name is not in the header of the file
+     */
+    int[] resolve(Header header) throws IOException {
+        if (columns != null) {
+            return columns;
+        }
+        if (header == null) {
+            throw new IOException("Columns selected by name, but the file has no header");
+        }
+        int[] resolved = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            resolved[i] = header.indexOf(names[i]);
+            if (resolved[i] < 0) {
+                throw new IOException("Column not found in the header: [" + names[i] + "]");
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * @return Flags of the columns of the file which are selected, or <code>null</code> if they
+     * cannot be known before reading the header
+     */
+    boolean[] mask() {
+        if (columns == null) {
+            return null;
+        }
+        int max = -1;
+        for (int column : columns) {
+            max = Math.max(max, column);
+        }
+        boolean[] mask = new boolean[max + 1];
+        for (int column : columns) {
+            mask[column] = true;
+        }
+        return mask;
+    }
+}
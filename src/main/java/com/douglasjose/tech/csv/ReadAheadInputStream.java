@@ -0,0 +1,195 @@
+package com.douglasjose.tech.csv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stream which reads another stream on a separate thread, a few blocks ahead of its consumer.
+ * Used to decompress a file while the previous blocks are being parsed.
+ * <p>
+ * The thread stops when the stream is closed or the thread is interrupted. It only holds a weak
+ * reference to the stream, so a stream which is abandoned without being closed does not keep it
+ * running either: once the stream has been collected, the thread stops waiting for its consumer.
+ *
+ * @author Douglas Rodrigues
+ */
+final class ReadAheadInputStream extends InputStream {
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final int BLOCKS = 4;
+    // How often a waiting worker checks if its consumer is still reachable
+    private static final long POLL_MILLIS = 1000;
+
+    private final Worker worker;
+    private final Thread thread;
+    private Block current;
+    private int position;
+    private boolean finished;
+    private boolean closed;
+
+    ReadAheadInputStream(InputStream in) {
+        this.worker = new Worker(in, this);
+        this.thread = new Thread(worker, "jcsvlib-read-ahead");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Must not reference the stream, so that an abandoned stream can be collected
+    private static final class Worker implements Runnable {
+
+        private final InputStream in;
+        private final WeakReference<ReadAheadInputStream> consumer;
+        // Blocks read from the stream, and blocks available to be read into
+        private final BlockingQueue<Block> full = new ArrayBlockingQueue<Block>(BLOCKS + 1);
+        private final BlockingQueue<Block> free = new ArrayBlockingQueue<Block>(BLOCKS);
+        private volatile IOException error;
+
+        Worker(InputStream in, ReadAheadInputStream consumer) {
+            this.in = in;
+            this.consumer = new WeakReference<ReadAheadInputStream>(consumer);
+            for (int i = 0; i < BLOCKS; i++) {
+                free.add(new Block(new byte[BLOCK_SIZE]));
+            }
+        }
+
+        public void run() {
+            try {
+                while (true) {
+                    Block block;
+                    while ((block = free.poll(POLL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+                        if (consumer.get() == null) {
+                            return;
+                        }
+                    }
+                    block.length = readFully(block.data);
+                    if (block.length < 0) {
+                        break;
+                    }
+                    while (!full.offer(block, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                        if (consumer.get() == null) {
+                            return;
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                error = e;
+            } catch (InterruptedException e) {
+                // Closed by the consumer
+            } finally {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    if (error == null) {
+                        error = e;
+                    }
+                }
+                // An empty block marks the end of the stream; there is always room for it
+                full.offer(new Block(null));
+            }
+        }
+
+        // Returns -1 at the end of the stream; a partial block is only returned at the end
+        private int readFully(byte[] data) throws IOException {
+            int length = 0;
+            while (length < data.length) {
+                int read = in.read(data, length, data.length - length);
+                if (read < 0) {
+                    return length > 0 ? length : -1;
+                }
+                length += read;
+            }
+            return length;
+        }
+    }
+
+    public int read() throws IOException {
+        if (!nextBlock()) {
+            return -1;
+        }
+        return current.data[position++] & 0xff;
+    }
+
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextBlock()) {
+            return -1;
+        }
+        int count = Math.min(len, current.length - position);
+        System.arraycopy(current.data, position, b, off, count);
+        position += count;
+        return count;
+    }
+
+    public int available() {
+        return current != null ? current.length - position : 0;
+    }
+
+    // Makes sure that the current block has unread content
+    private boolean nextBlock() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (current != null && position < current.length) {
+            return true;
+        }
+        if (finished) {
+            return false;
+        }
+        if (current != null) {
+            worker.free.offer(current);
+            current = null;
+        }
+        Block block;
+        try {
+            block = worker.full.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading");
+        }
+        if (block.data == null) {
+            finished = true;
+            if (worker.error != null) {
+                throw worker.error;
+            }
+            return false;
+        }
+        current = block;
+        position = 0;
+        return true;
+    }
+
+    /**
+     * Stops reading ahead and closes the underlying stream. Errors of the blocks which were read
+     * ahead but never consumed are discarded.
+     */
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing");
+        }
+    }
+
+    private static final class Block {
+
+        final byte[] data;
+        int length;
+
+        Block(byte[] data) {
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.douglasjose.tech.csv;
+
+import java.io.IOException;
+
+/**
+ * Stores the records read from a file into a <code>Csv</code>, taking the header of the file
+ * from the first record, leaving out the records rejected by the filter and the columns not
+ * selected by the projection when required.
+ *
+ * @author Douglas Rodrigues
+ */
+final class RecordLoader {
+
+    private final Csv csv;
+    // Set for data structures which can decode the fields without converting them to Strings
+    private final AbstractCsv fieldCsv;
+    private final HeaderMode headerMode;
+    private final Projection projection;
+    private final RowFilter filter;
+
+    private int records = 0;
+    private int row = 0;
+    // First record, held until the second one tells if it is a header
+    private String[] pending;
+    // Indexes in the file of the stored columns, or null to store all of them
+    private int[] selected;
+    private boolean resolved = false;
+
+    RecordLoader(Csv csv, HeaderMode headerMode, Projection projection, RowFilter filter) {
+        this.csv = csv;
+        this.fieldCsv = csv instanceof AbstractCsv ? (AbstractCsv) csv : null;
+        this.headerMode = headerMode;
+        this.projection = projection;
+        this.filter = filter;
+    }
+
+    /**
+     * Stores the next record of the file. The record is only read during the call.
+     *
+     * @param record Record read from the file
+     * @throws IOException If the projection does not match the file
+     */
+    void add(CsvRecord record) throws IOException {
+        add(record, filter);
+    }
+
+    /**
+     * Stores the next record of the file, which has already been accepted by the filter.
+     *
+     * @param record Record read from the file
+     * @throws IOException If the projection does not match the file
+     */
+    void addAccepted(CsvRecord record) throws IOException {
+        add(record, null);
+    }
+
+    private void add(CsvRecord record, RowFilter filter) throws IOException {
+        if (records++ == 0 && headerMode != HeaderMode.NONE) {
+            if (headerMode == HeaderMode.FIRST_ROW) {
+                setHeader(copy(record));
+            } else {
+                pending = copy(record);
+            }
+            return;
+        }
+        if (pending != null) {
+            String[] first = pending;
+            pending = null;
+            if (isHeader(first, record)) {
+                setHeader(first);
+            } else {
+                storeAccepted(new Row(0, first), this.filter);
+            }
+        }
+        storeAccepted(record, filter);
+    }
+
+    /**
+     * Stores any record still held once the end of the file has been reached.
+     *
+     * @throws IOException If the projection does not match the file
+     */
+    void finish() throws IOException {
+        if (pending != null) {
+            // A single row is data, as there is nothing to tell it from
+            String[] first = pending;
+            pending = null;
+            storeAccepted(new Row(0, first), filter);
+        }
+    }
+
+    /**
+     * @return Number of rows stored so far
+     */
+    int getStoredRows() {
+        return row;
+    }
+
+    /**
+     * @return Number of leading records of the file which must be read in full to find its
+     * header
+     */
+    int getLeadingRecords() {
+        return headerMode == HeaderMode.NONE ? 0 : headerMode == HeaderMode.FIRST_ROW ? 1 : 2;
+    }
+
+    /**
+     * @return Flags of the columns of the file which are stored, or <code>null</code> if all of
+     * them may be
+     */
+    boolean[] getColumnMask() {
+        return projection != null ? projection.mask() : null;
+    }
+
+    /**
+     * @return Filter of the loaded records, or <code>null</code> if all of them are loaded
+     */
+    RowFilter getFilter() {
+        return filter;
+    }
+
+    private void setHeader(String[] names) throws IOException {
+        Header header = new Header(names);
+        resolve(header);
+        if (selected != null) {
+            String[] projected = new String[selected.length];
+            for (int i = 0; i < selected.length; i++) {
+                projected[i] = selected[i] < names.length ? names[selected[i]] : "";
+            }
+            header = new Header(projected);
+        }
+        csv.setHeader(header);
+    }
+
+    private void resolve(Header header) throws IOException {
+        if (!resolved) {
+            selected = projection != null ? projection.resolve(header) : null;
+            resolved = true;
+        }
+    }
+
+    private void storeAccepted(CsvRecord record, RowFilter filter) throws IOException {
+        if (filter == null || filter.accept(record)) {
+            store(record);
+        }
+    }
+
+    private void store(CsvRecord record) throws IOException {
+        resolve(null);
+        if (selected == null) {
+            if (fieldCsv != null) {
+                fieldCsv.addRecord(row, record);
+            } else {
+                csv.addRow(row, copy(record));
+            }
+        } else {
+            for (int column = 0; column < selected.length; column++) {
+                if (selected[column] < record.size()) {
+                    put(column, record.get(selected[column]));
+                }
+            }
+        }
+        row++;
+    }
+
+    private void put(int column, CharSequence content) {
+        if (fieldCsv != null) {
+            fieldCsv.addField(row, column, content);
+        } else {
+            csv.add(row, column, content.toString());
+        }
+    }
+
+    private static String[] copy(CsvRecord record) {
+        String[] fields = new String[record.size()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = record.get(i).toString();
+        }
+        return fields;
+    }
+
+    private static boolean isHeader(String[] first, CsvRecord second) {
+        if (first.length == 0) {
+            return false;
+        }
+        Header header = new Header(first);
+        for (int i = 0; i < first.length; i++) {
+            if (first[i].length() == 0 || header.indexOf(first[i]) != i || isTyped(first[i])) {
+                return false;
+            }
+        }
+        for (int i = 0; i < second.size(); i++) {
+            if (isTyped(second.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTyped(CharSequence field) {
+        // Fields left out by the projection may not have been read
+        if (field == null || field.length() == 0) {
+            return false;
+        }
+        if (isDecimal(field)) {
+            return true;
+        }
+        try {
+            FieldDecoder.parseDate(field);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // Plain decimal numbers, such as "-12", "3.5" or "1e-3"; unlike Double.parseDouble, names
+    // such as "NaN", "Infinity", "1d" or "0x1p3" are not numbers
+    private static boolean isDecimal(CharSequence field) {
+        int length = field.length();
+        int i = 0;
+        if (field.charAt(0) == '-' || field.charAt(0) == '+') {
+            i++;
+        }
+        boolean digits = false;
+        boolean point = false;
+        for (; i < length; i++) {
+            char c = field.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (!digits) {
+            return false;
+        }
+        if (i < length && (field.charAt(i) == 'e' || field.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (field.charAt(i) == '-' || field.charAt(i) == '+')) {
+                i++;
+            }
+            int exponentStart = i;
+            while (i < length && field.charAt(i) >= '0' && field.charAt(i) <= '9') {
+                i++;
+            }
+            if (i == exponentStart) {
+                return false;
+            }
+        }
+        return i == length;
+    }
+}
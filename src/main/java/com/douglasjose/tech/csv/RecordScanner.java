@@ -0,0 +1,65 @@
+package com.douglasjose.tech.csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Splits the content of a file into records. A scanner is itself a view of the current record,
+ * and the fields it returns are only valid until the scanner advances.
+ *
+ * @author Douglas Rodrigues
+ */
+abstract class RecordScanner implements CsvRecord, Closeable {
+
+    private int recordNumber = -1;
+    // Number of fields read so far which were within text delimiters
+    private long quotedFields = 0;
+
+    /**
+     * Advances to the next record of the file.
+     *
+     * @return <code>false</code> if the end of the file has been reached
+     * @throws IOException If the data cannot be read
+     */
+    final boolean next() throws IOException {
+        if (!scan()) {
+            return false;
+        }
+        recordNumber++;
+        return true;
+    }
+
+    /**
+     * Reads and splits the next record.
+     *
+     * @return <code>false</code> if there are no more records
+     * @throws IOException If the data cannot be read
+     */
+    protected abstract boolean scan() throws IOException;
+
+    /**
+     * Copies a field of the current record into a <code>String</code>.
+     *
+     * @param column Zero-based column index, lower than {@link #size()}
+     * @return The content of the field
+     */
+    abstract String getString(int column);
+
+    public int getIndex() {
+        return recordNumber;
+    }
+
+    /**
+     * Counts a field whose content is within text delimiters.
+     */
+    protected final void countQuotedField() {
+        quotedFields++;
+    }
+
+    /**
+     * @return Number of fields read so far which were within text delimiters
+     */
+    long getQuotedFields() {
+        return quotedFields;
+    }
+}
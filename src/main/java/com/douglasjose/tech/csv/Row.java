@@ -0,0 +1,57 @@
+package com.douglasjose.tech.csv;
+
+/**
+ * A single row of a CSV file, as delivered by a {@link com.douglasjose.tech.csv.CsvReader} or
+ * read from a {@link com.douglasjose.tech.csv.Csv}.
+ * The fields of the row are addressed by zero-based column indexes.
+ * Unlike the records returned by {@link com.douglasjose.tech.csv.CsvReader#nextRecord()}, rows
+ * hold their own copy of the content and remain valid after the reader advances, or after the
+ * <code>Csv</code> is modified.
+ *
+ * @author Douglas Rodrigues
+ */
+public class Row implements CsvRecord {
+
+    private final int index;
+    private final String[] fields;
+
+    Row(int index, String[] fields) {
+        this.index = index;
+        this.fields = fields;
+    }
+
+    /**
+     * @return Zero-based index of this row in the file
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return Number of fields read for this row
+     */
+    public int size() {
+        return fields.length;
+    }
+
+    /**
+     * Reads the content of a field of the row. Returns the empty String if the row has no field
+     * in the given column.
+     *
+     * @param column Zero-based column index
+     * @return The content of the field
+     */
+    public String get(int column) {
+        if (column < 0) {
+            throw new IndexOutOfBoundsException("Invalid column: " + column);
+        }
+        return column < fields.length ? fields[column] : "";
+    }
+
+    /**
+     * @return A copy of the fields of this row
+     */
+    public String[] toArray() {
+        return fields.clone();
+    }
+}
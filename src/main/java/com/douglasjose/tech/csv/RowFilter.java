@@ -0,0 +1,25 @@
+package com.douglasjose.tech.csv;
+
+/**
+ * Predicate deciding which records of a file are loaded into a <code>Csv</code>, given to a
+ * {@link com.douglasjose.tech.csv.CustomDelimitersCsvParser}.
+ * Records are filtered while they are read, through the views of their fields, so the rejected
+ * ones are never copied. Common filters are provided by
+ * {@link com.douglasjose.tech.csv.RowFilters}.
+ * <p>
+ * Filters see every column of the file, regardless of the projection of the parser, but not
+ * the header. As files may be loaded in parallel, filters may be called concurrently, and should
+ * only depend on the fields of the records.
+ *
+ * @author Douglas Rodrigues
+ */
+public interface RowFilter {
+
+    /**
+     * Decides if a record is loaded.
+     *
+     * @param record Record read from the file, only valid during the call
+     * @return If the record is loaded
+     */
+    boolean accept(CsvRecord record);
+}
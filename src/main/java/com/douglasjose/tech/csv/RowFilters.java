@@ -0,0 +1,118 @@
+package com.douglasjose.tech.csv;
+
+/**
+ * Utility class providing common {@link com.douglasjose.tech.csv.RowFilter} implementations.
+ * Columns are addressed by their zero-based index in the file.
+ *
+ * @author Douglas Rodrigues
+ */
+public class RowFilters {
+
+    private RowFilters() {} // Do not instantiate this class
+
+    /**
+     * Accepts the records whose field in a given column is equal to a value.
+     *
+     * @param column Zero-based column index
+     * @param value Expected content of the field
+     * @return Filter
+     */
+    public static RowFilter equalTo(final int column, final String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Invalid value: [" + value + "]");
+        }
+        return new RowFilter() {
+            public boolean accept(CsvRecord record) {
+                CharSequence field = record.get(column);
+                if (field.length() != value.length()) {
+                    return false;
+                }
+                for (int i = 0; i < value.length(); i++) {
+                    if (field.charAt(i) != value.charAt(i)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Accepts the records whose field in a given column is a number within a range. Records
+     * whose field is empty or not a number are rejected.
+     *
+     * @param column Zero-based column index
+     * @param min Smallest accepted value
+     * @param max Largest accepted value
+     * @return Filter
+     */
+    public static RowFilter between(final int column, final double min, final double max) {
+        return new RowFilter() {
+            public boolean accept(CsvRecord record) {
+                CharSequence field = record.get(column);
+                if (field.length() == 0) {
+                    return false;
+                }
+                double value;
+                try {
+                    value = FieldDecoder.parseDouble(field);
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+                return value >= min && value <= max;
+            }
+        };
+    }
+
+    /**
+     * Accepts the records accepted by all the given filters.
+     *
+     * @param filters Filters to be combined
+     * @return Filter
+     */
+    public static RowFilter and(final RowFilter... filters) {
+        return new RowFilter() {
+            public boolean accept(CsvRecord record) {
+                for (RowFilter filter : filters) {
+                    if (!filter.accept(record)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Accepts the records accepted by any of the given filters.
+     *
+     * @param filters Filters to be combined
+     * @return Filter
+     */
+    public static RowFilter or(final RowFilter... filters) {
+        return new RowFilter() {
+            public boolean accept(CsvRecord record) {
+                for (RowFilter filter : filters) {
+                    if (filter.accept(record)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Accepts the records rejected by a filter.
+     *
+     * @param filter Filter to be negated
+     * @return Filter
+     */
+    public static RowFilter not(final RowFilter filter) {
+        return new RowFilter() {
+            public boolean accept(CsvRecord record) {
+                return !filter.accept(record);
+            }
+        };
+    }
+}
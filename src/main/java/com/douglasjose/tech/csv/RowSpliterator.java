@@ -0,0 +1,57 @@
+package com.douglasjose.tech.csv;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over a range of rows of a <code>Csv</code>, read through
+ * {@link com.douglasjose.tech.csv.Csv#getRow(int)}.
+ * The range is fixed when the spliterator is created and split in halves, so parallel streams
+ * divide the rows evenly between the threads.
+ *
+ * @author Douglas Rodrigues
+ */
+class RowSpliterator implements Spliterator<Row> {
+
+    private final Csv csv;
+    private int index;
+    private final int fence;
+
+    RowSpliterator(Csv csv, int origin, int fence) {
+        this.csv = csv;
+        this.index = origin;
+        this.fence = fence;
+    }
+
+    public boolean tryAdvance(Consumer<? super Row> action) {
+        if (index >= fence) {
+            return false;
+        }
+        action.accept(csv.getRow(index++));
+        return true;
+    }
+
+    public void forEachRemaining(Consumer<? super Row> action) {
+        while (index < fence) {
+            action.accept(csv.getRow(index++));
+        }
+    }
+
+    public Spliterator<Row> trySplit() {
+        int middle = (index + fence) >>> 1;
+        if (middle <= index) {
+            return null;
+        }
+        Spliterator<Row> prefix = new RowSpliterator(csv, index, middle);
+        index = middle;
+        return prefix;
+    }
+
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL;
+    }
+}
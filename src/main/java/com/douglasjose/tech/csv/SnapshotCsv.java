@@ -0,0 +1,184 @@
+package com.douglasjose.tech.csv;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only implementation of the {@link com.douglasjose.tech.csv.Csv} interface, which serves
+ * the content of a binary snapshot written by a {@link com.douglasjose.tech.csv.SnapshotCsvParser}.
+ * Loading a snapshot from a file only maps it in memory: no position is decoded until it is read,
+ * and each distinct value of a column is decoded at most once. Reloading a large file from its
+ * snapshot is therefore much faster than parsing the file again.
+ * <p>
+ * Snapshots cannot be modified; the methods which would modify the content throw
+ * <code>UnsupportedOperationException</code>. To change a snapshot, copy its rows to another
+ * <code>Csv</code>, modify it and store it with a <code>SnapshotCsvParser</code>.
+ * <p>
+ * This class is not thread safe. Concurrent reads are only safe once every read value has been
+ * decoded.
+ *
+ * @author Douglas Rodrigues
+ */
+public class SnapshotCsv extends AbstractCsv {
+
+    private ByteBuffer buffer;
+    private int rows;
+    private int columns;
+    // Start of the values offsets, codes and values of each column, and their number of values
+    private int[] offsetsStart;
+    private int[] codesStart;
+    private int[] valuesStart;
+    private int[] valueCounts;
+    // Values decoded so far, indexed by [column][code]
+    private String[][] decoded;
+
+    protected SnapshotCsv(SnapshotCsvParser parser) {
+        super(parser);
+        clear();
+    }
+
+    /**
+     * Serves the content of a snapshot, discarding any existing content.
+     *
+     * @param snapshot Content of the snapshot, from its first byte
+     * @throws IOException If the content is not a snapshot
+     */
+    void open(ByteBuffer snapshot) throws IOException {
+        clear();
+        ByteBuffer buffer = snapshot.slice();
+        try {
+            if (buffer.getInt(0) != SnapshotCsvParser.MAGIC) {
+                throw new IOException("Not a CSV snapshot");
+            }
+            if (buffer.getInt(4) != SnapshotCsvParser.VERSION) {
+                throw new IOException("Unsupported CSV snapshot version: " + buffer.getInt(4));
+            }
+            int rows = buffer.getInt(8);
+            int columns = buffer.getInt(12);
+            int names = buffer.getInt(16);
+            int position = 20;
+            if (names >= 0) {
+                String[] header = new String[names];
+                for (int i = 0; i < names; i++) {
+                    int length = buffer.getInt(position);
+                    header[i] = decode(buffer, position + 4, length);
+                    position += 4 + length;
+                }
+                setHeader(new Header(header));
+            }
+            offsetsStart = new int[columns];
+            codesStart = new int[columns];
+            valuesStart = new int[columns];
+            valueCounts = new int[columns];
+            for (int column = 0; column < columns; column++) {
+                int columnStart = buffer.getInt(position + 4 * column);
+                valueCounts[column] = buffer.getInt(columnStart);
+                offsetsStart[column] = columnStart + 4;
+                codesStart[column] = offsetsStart[column] + 4 * (valueCounts[column] + 1);
+                valuesStart[column] = codesStart[column] + 4 * rows;
+                if (valuesStart[column] < 0 || valuesStart[column] > buffer.limit()) {
+                    throw new IOException("Truncated CSV snapshot");
+                }
+            }
+            this.decoded = new String[columns][];
+            this.buffer = buffer;
+            this.rows = rows;
+            this.columns = columns;
+        } catch (IndexOutOfBoundsException e) {
+            clear();
+            throw new IOException("Truncated CSV snapshot", e);
+        } catch (IOException e) {
+            clear();
+            throw e;
+        }
+    }
+
+    /**
+     * Snapshots are read-only.
+     *
+     * @throws UnsupportedOperationException Always
+     */
+    public void add(int row, int column, String content) {
+        throw new UnsupportedOperationException("CSV snapshots are read-only");
+    }
+
+    /**
+     * Reads the content in the position [row, column] of the file. Return the empty String if there
+     * is no content in the given position.
+     * @param row Zero-based row index
+     * @param column Zero-based column index
+     * @return The content at a given position.
+     */
+    public String get(int row, int column) {
+        if (row < 0 || column < 0 || row >= this.rows || column >= this.columns) {
+            throw new IndexOutOfBoundsException("Invalid CSV position: [" + row + ","
+                    + column + "]");
+        }
+        int code = buffer.getInt(codesStart[column] + 4 * row);
+        if (code == 0) {
+            return "";
+        }
+        String[] values = decoded[column];
+        if (values == null) {
+            values = new String[valueCounts[column]];
+            decoded[column] = values;
+        }
+        String value = values[code - 1];
+        if (value == null) {
+            int offset = buffer.getInt(offsetsStart[column] + 4 * (code - 1));
+            int end = buffer.getInt(offsetsStart[column] + 4 * code);
+            value = decode(buffer, valuesStart[column] + offset, end - offset);
+            values[code - 1] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Snapshots are read-only.
+     *
+     * @throws UnsupportedOperationException Always
+     */
+    public boolean remove(int row, int column) {
+        throw new UnsupportedOperationException("CSV snapshots are read-only");
+    }
+
+    /**
+     * Snapshots are read-only.
+     *
+     * @throws UnsupportedOperationException Always
+     */
+    public boolean removeRange(int fromRow, int fromColumn, int toRow, int toColumn) {
+        throw new UnsupportedOperationException("CSV snapshots are read-only");
+    }
+
+    protected void clear() {
+        buffer = null;
+        rows = 0;
+        columns = 0;
+        decoded = new String[0][];
+        setHeader(null);
+    }
+
+    /**
+     * @return Number of columns in the file
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return Number of lines in the file
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    private static String decode(ByteBuffer buffer, int position, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(position + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,205 @@
+package com.douglasjose.tech.csv;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <code>CsvParser</code> which persists a <code>Csv</code> in a binary snapshot, instead of a text
+ * file. Snapshots are meant to be written once from a parsed file, and reloaded much faster than
+ * the text file could be parsed again: a {@link com.douglasjose.tech.csv.SnapshotCsv} maps the
+ * snapshot in memory and only decodes the positions which are read.
+ * <p>
+ * The content of each column is dictionary encoded: every distinct value of the column is stored
+ * once, in UTF-8, and each position of the column holds the code of its value. A snapshot has the
+ * following layout, with all the numbers stored as big-endian <code>int</code>s:
+ * <pre>
+ * magic ("JCSV"), version, rows, columns
+ * header names (-1 without header), then each name as its length in bytes and its UTF-8 bytes
+ * offset of each column from the start of the snapshot
+ * each column: number of values, offsets of the values (one more than their number, relative to
+ *              the first value), code of each row (zero for empty positions, the index of the
+ *              value plus one otherwise), UTF-8 bytes of the values
+ * </pre>
+ * Snapshots are always written in UTF-8, so the encodings given to this parser are ignored.
+ * Snapshots are limited to 2 GB.
+ *
+ * @author Douglas Rodrigues
+ */
+public class SnapshotCsvParser implements CsvParser {
+
+    static final int MAGIC = 0x4A435356;
+    static final int VERSION = 1;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public void writeFile(Csv csv, OutputStream os) throws IOException {
+        int rows = csv.getRows();
+        int columns = csv.getColumns();
+        Dictionary[] dictionaries = new Dictionary[columns];
+        int[][] codes = new int[columns][rows];
+        for (int column = 0; column < columns; column++) {
+            dictionaries[column] = new Dictionary();
+        }
+        for (int row = 0; row < rows; row++) {
+            Row fields = csv.getRow(row);
+            for (int column = 0; column < columns; column++) {
+                String value = fields.get(column);
+                codes[column][row] = value.length() == 0 ? 0
+                        : dictionaries[column].encode(value) + 1;
+            }
+        }
+
+        Header header = csv.getHeader();
+        byte[][] names = header != null ? encode(header.toArray()) : null;
+        byte[][][] values = new byte[columns][][];
+        for (int column = 0; column < columns; column++) {
+            String[] columnValues = new String[dictionaries[column].size()];
+            for (int code = 0; code < columnValues.length; code++) {
+                columnValues[code] = dictionaries[column].decode(code);
+            }
+            values[column] = encode(columnValues);
+        }
+
+        long offset = 5 * 4 + 4L * columns;
+        if (names != null) {
+            offset += 4L * names.length + length(names);
+        }
+        int[] columnOffsets = new int[columns];
+        for (int column = 0; column < columns; column++) {
+            columnOffsets[column] = (int) offset;
+            offset += 4 + 4L * (values[column].length + 1) + 4L * rows + length(values[column]);
+            if (offset > Integer.MAX_VALUE) {
+                throw new IOException("CSV snapshot larger than 2 GB");
+            }
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, BUFFER_SIZE));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(rows);
+        out.writeInt(columns);
+        if (names == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(names.length);
+            for (byte[] name : names) {
+                out.writeInt(name.length);
+                out.write(name);
+            }
+        }
+        for (int columnOffset : columnOffsets) {
+            out.writeInt(columnOffset);
+        }
+        for (int column = 0; column < columns; column++) {
+            byte[][] columnValues = values[column];
+            out.writeInt(columnValues.length);
+            int valueOffset = 0;
+            out.writeInt(valueOffset);
+            for (byte[] value : columnValues) {
+                valueOffset += value.length;
+                out.writeInt(valueOffset);
+            }
+            for (int row = 0; row < rows; row++) {
+                out.writeInt(codes[column][row]);
+            }
+            for (byte[] value : columnValues) {
+                out.write(value);
+            }
+        }
+        out.close();
+    }
+
+    /**
+     * Writes a snapshot; the encoding is ignored, as snapshots are always written in UTF-8.
+     */
+    public void writeFile(Csv csv, OutputStream os, Charset charset) throws IOException {
+        writeFile(csv, os);
+    }
+
+    /**
+     * Loads a snapshot from a stream. The snapshot is read in memory as a whole; a
+     * <code>SnapshotCsv</code> serves it from there, while other <code>Csv</code>s receive a copy
+     * of its content.
+     *
+     * @param csv Destination data structure
+     * @param is Stream to read the data from
+     * @throws IOException If the data cannot be read, or is not a snapshot
+     */
+    public void loadFile(Csv csv, InputStream is) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream(BUFFER_SIZE);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = is.read(buffer)) >= 0) {
+            content.write(buffer, 0, read);
+        }
+        is.close();
+        load(csv, ByteBuffer.wrap(content.toByteArray()));
+    }
+
+    /**
+     * Loads a snapshot from a stream; the encoding is ignored, as snapshots are always written in
+     * UTF-8.
+     */
+    public void loadFile(Csv csv, InputStream is, Charset charset) throws IOException {
+        loadFile(csv, is);
+    }
+
+    /**
+     * Loads a snapshot from a file channel. The file is memory mapped; a <code>SnapshotCsv</code>
+     * serves it directly from the mapped file, while other <code>Csv</code>s receive a copy of
+     * its content.
+     *
+     * @param csv Destination data structure
+     * @param channel Channel to read the data from, starting at its current position
+     * @throws IOException If the data cannot be read, or is not a snapshot
+     */
+    public void loadFile(Csv csv, FileChannel channel) throws IOException {
+        ByteBuffer buffer;
+        try {
+            long length = channel.size() - channel.position();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("CSV snapshot larger than 2 GB");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, channel.position(), length);
+        } finally {
+            // The mapping remains valid after the channel is closed
+            channel.close();
+        }
+        load(csv, buffer);
+    }
+
+    private void load(Csv csv, ByteBuffer buffer) throws IOException {
+        SnapshotCsv snapshot;
+        if (csv instanceof SnapshotCsv) {
+            snapshot = (SnapshotCsv) csv;
+        } else {
+            snapshot = new SnapshotCsv(this);
+        }
+        snapshot.open(buffer);
+        if (snapshot != csv) {
+            csv.setHeader(snapshot.getHeader());
+            for (int row = 0; row < snapshot.getRows(); row++) {
+                csv.addRow(row, snapshot.getRow(row).toArray());
+            }
+        }
+    }
+
+    private static byte[][] encode(String[] strings) {
+        byte[][] bytes = new byte[strings.length][];
+        for (int i = 0; i < strings.length; i++) {
+            bytes[i] = strings[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+
+    private static long length(byte[][] bytes) {
+        long length = 0;
+        for (byte[] b : bytes) {
+            length += b.length;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,29 @@
+package com.douglasjose.tech.csv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Byte scanner which reads a file from a stream, skipping the decoder layer.
+ *
+ * @author Douglas Rodrigues
+ */
+class StreamRecordScanner extends ByteRecordScanner {
+
+    private final InputStream is;
+
+    StreamRecordScanner(InputStream is, String fieldSeparator, String textDelimiter,
+                        Charset charset) {
+        super(fieldSeparator, textDelimiter, charset);
+        this.is = is;
+    }
+
+    protected int read(byte[] buffer, int offset, int length) throws IOException {
+        return is.read(buffer, offset, length);
+    }
+
+    public void close() throws IOException {
+        is.close();
+    }
+}
@@ -0,0 +1,507 @@
+package com.douglasjose.tech.csv;
+
+import java.util.BitSet;
+import java.util.Date;
+
+/**
+ * Column oriented implementation of the {@link com.douglasjose.tech.csv.Csv} interface which
+ * stores each column in the type declared by a {@link com.douglasjose.tech.csv.CsvSchema}.
+ * Numeric, boolean and date columns are kept in primitive arrays, and are decoded by the parser
+ * directly from its buffer, so no <code>String</code> is created for their fields. The values
+ * are read through typed accessors such as {@link #getInt(int, int)}.
+ * Dictionary columns keep each distinct value once, and only create a <code>String</code> for
+ * the first occurrence of each value in the file.
+ * <p>
+ * Adding content which cannot be decoded in the type of its column fails with an
+ * <code>IllegalArgumentException</code> (a <code>NumberFormatException</code> for numbers), both
+ * through {@link #add(int, int, String)} and when loading a file. Empty fields hold no value.
+ * {@link #get(int, int)} returns the canonical representation of the stored value, so the
+ * content of typed columns may be written differently from the original file (e.g.
+ * <code>1.50</code> becomes <code>1.5</code>).
+ *
+ * @author Douglas Rodrigues
+ */
+public class TypedCsv extends AbstractCsv {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final CsvSchema schema;
+
+    private Column[] data;
+    // Number of filled positions in each row and in each column
+    private int[] rowCounts;
+    private int[] columnCounts;
+
+    private int columns;
+    private int rows;
+
+    protected TypedCsv(CsvParser parser, CsvSchema schema) {
+        super(parser);
+        if (schema == null) {
+            throw new IllegalArgumentException("Invalid schema: [" + schema + "]");
+        }
+        this.schema = schema;
+        clear();
+    }
+
+    /**
+     * Add the content to the position [row, column] of the file, decoded in the type of the
+     * column. Silently replaces existing content.
+     *
+     * @param row Zero-based row index
+     * @param column Zero-based column index
+     * @param content String to be stored
+     * @throws IllegalArgumentException If the content is not valid for the type of the column
+     */
+    public void add(int row, int column, String content) {
+        addField(row, column, content != null ? content : "");
+    }
+
+    protected void addField(int row, int column, CharSequence content) {
+        if (row < 0 || column < 0) {
+            throw new IndexOutOfBoundsException("Invalid CSV position: [" + row + ","
+                    + column + "]");
+        }
+        if (column >= data.length) {
+            growColumns(column + 1);
+        }
+        Column columnData = data[column];
+        if (columnData == null) {
+            columnData = createColumn(schema.getType(column));
+            data[column] = columnData;
+        }
+        // Decoded before any change, so invalid content leaves the data structure untouched
+        boolean wasFilled = columnData.filled.get(row);
+        columnData.set(row, content);
+        if (row >= rowCounts.length) {
+            rowCounts = grow(rowCounts, row + 1);
+        }
+        if (!wasFilled) {
+            columnData.filled.set(row);
+            rowCounts[row]++;
+            columnCounts[column]++;
+        }
+        columns = Math.max(columns, column + 1);
+        rows = Math.max(rows, row + 1);
+    }
+
+    /**
+     * Reads the content in the position [row, column] of the file. Return the empty String if there
+     * is no content in the given position.
+     * @param row Zero-based row index
+     * @param column Zero-based column index
+     * @return The content at a given position.
+     */
+    public String get(int row, int column) {
+        Column columnData = column(row, column);
+        return columnData != null && columnData.hasValue(row) ? columnData.format(row) : "";
+    }
+
+    /**
+     * Checks if a position holds a value. Empty positions and empty fields hold no value, and the
+     * typed accessors return zero (or <code>false</code>) for them.
+     *
+     * @param row Zero-based row index
+     * @param column Zero-based column index
+     * @return If there is a value in the given position
+     */
+    public boolean hasValue(int row, int column) {
+        Column columnData = column(row, column);
+        return columnData != null && columnData.hasValue(row);
+    }
+
+    /**
+     * Reads the value in the position [row, column] of an INT column.
+     *
+     * @param row Zero-based row index
+     * @param column Zero-based column index
+     * @return The value at the given position, or 0 if there is none
+     */
+    public int getInt(int row, int column) {
+        checkType(column, ColumnType.INT);
+        Column columnData = column(row, column);
+        return columnData != null ? ((IntColumn) columnData).get(row) : 0;
+    }
+
+    /**
+     * Reads the value in the position [row, column] of a LONG or INT column, or the milliseconds
+     * since the epoch in a DATE column.
+     *
+     * @param row Zero-based row index
+     * @param column Zero-based column index
+     * @return The value at the given position, or 0 if there is none
+     */
+    public long getLong(int row, int column) {
+        ColumnType type = checkType(column, ColumnType.LONG, ColumnType.INT, ColumnType.DATE);
+        Column columnData = column(row, column);
+        if (columnData == null) {
+            return 0;
+        }
+        return type == ColumnType.INT ? ((IntColumn) columnData).get(row)
+                : ((LongColumn) columnData).get(row);
+    }
+
+    /**
+     * Reads the value in the position [row, column] of a DOUBLE, INT or LONG column.
+     *
+     * @param row Zero-based row index
+     * @param column Zero-based column index
+     * @return The value at the given position, or 0 if there is none
+     */
+    public double getDouble(int row, int column) {
+        ColumnType type = checkType(column, ColumnType.DOUBLE, ColumnType.INT, ColumnType.LONG);
+        Column columnData = column(row, column);
+        if (columnData == null) {
+            return 0;
+        }
+        if (type == ColumnType.INT) {
+            return ((IntColumn) columnData).get(row);
+        }
+        return type == ColumnType.LONG ? ((LongColumn) columnData).get(row)
+                : ((DoubleColumn) columnData).get(row);
+    }
+
+    /**
+     * Reads the value in the position [row, column] of a BOOLEAN column.
+     *
+     * @param row Zero-based row index
+     * @param column Zero-based column index
+     * @return The value at the given position, or <code>false</code> if there is none
+     */
+    public boolean getBoolean(int row, int column) {
+        checkType(column, ColumnType.BOOLEAN);
+        Column columnData = column(row, column);
+        return columnData != null && ((BooleanColumn) columnData).get(row);
+    }
+
+    /**
+     * Reads the value in the position [row, column] of a DATE column.
+     *
+     * @param row Zero-based row index
+     * @param column Zero-based column index
+     * @return The value at the given position, or <code>null</code> if there is none
+     */
+    public Date getDate(int row, int column) {
+        checkType(column, ColumnType.DATE);
+        Column columnData = column(row, column);
+        return columnData != null && columnData.hasValue(row)
+                ? new Date(((LongColumn) columnData).get(row)) : null;
+    }
+
+    /**
+     * Removes the content from the position [row, column].
+     * @param row Zero-based row index
+     * @param column Zero-based column index
+     * @return If the operation modified the data structure
+     */
+    public boolean remove(int row, int column) {
+        if (row < 0 || column < 0 || column >= data.length || data[column] == null
+                || !data[column].filled.get(row)) {
+            return false;
+        }
+        data[column].filled.clear(row);
+        data[column].remove(row);
+        rowCounts[row]--;
+        columnCounts[column]--;
+        while (rows > 0 && rowCounts[rows - 1] == 0) {
+            rows--;
+        }
+        while (columns > 0 && columnCounts[columns - 1] == 0) {
+            columns--;
+        }
+        return true;
+    }
+
+    protected void clear() {
+        data = new Column[0];
+        rowCounts = new int[INITIAL_CAPACITY];
+        columnCounts = new int[0];
+        rows = 0;
+        columns = 0;
+    }
+
+    /**
+     * @return Number of columns in the file
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return Number of lines in the file
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * @return Schema describing the types of the columns
+     */
+    public CsvSchema getSchema() {
+        return schema;
+    }
+
+    private Column column(int row, int column) {
+        if (row < 0 || column < 0 || row >= this.rows || column >= this.columns) {
+            throw new IndexOutOfBoundsException("Invalid CSV position: [" + row + ","
+                    + column + "]");
+        }
+        return data[column];
+    }
+
+    private ColumnType checkType(int column, ColumnType... accepted) {
+        ColumnType type = schema.getType(column);
+        for (ColumnType acceptedType : accepted) {
+            if (type == acceptedType) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Column " + column + " is of type " + type);
+    }
+
+    private static Column createColumn(ColumnType type) {
+        switch (type) {
+            case INT:
+                return new IntColumn();
+            case LONG:
+                return new LongColumn();
+            case DOUBLE:
+                return new DoubleColumn();
+            case BOOLEAN:
+                return new BooleanColumn();
+            case DATE:
+                return new DateColumn();
+            case DICTIONARY:
+                return new DictionaryColumn();
+            default:
+                return new StringColumn();
+        }
+    }
+
+    private void growColumns(int minColumns) {
+        int capacity = newCapacity(data.length, minColumns);
+        Column[] newData = new Column[capacity];
+        System.arraycopy(data, 0, newData, 0, data.length);
+        data = newData;
+        columnCounts = grow(columnCounts, capacity);
+    }
+
+    private static int[] grow(int[] array, int minLength) {
+        int[] newArray = new int[newCapacity(array.length, minLength)];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        return newArray;
+    }
+
+    private static int newCapacity(int length, int minLength) {
+        return Math.max(minLength, length + (length >> 1) + 1);
+    }
+
+    /**
+     * Storage of a single column.
+     */
+    private abstract static class Column {
+
+        // Filled positions, including the ones holding empty fields
+        final BitSet filled = new BitSet();
+
+        /**
+         * Decodes and stores a field. Must not modify the column if the content is invalid.
+         */
+        abstract void set(int row, CharSequence content);
+
+        abstract boolean hasValue(int row);
+
+        abstract String format(int row);
+
+        abstract void remove(int row);
+    }
+
+    /**
+     * Column of primitive values, whose positions without a value are tracked separately.
+     */
+    private abstract static class PrimitiveColumn extends Column {
+
+        private final BitSet present = new BitSet();
+
+        void set(int row, CharSequence content) {
+            if (content.length() == 0) {
+                present.clear(row);
+            } else {
+                setValue(row, content);
+                present.set(row);
+            }
+        }
+
+        abstract void setValue(int row, CharSequence content);
+
+        boolean hasValue(int row) {
+            return present.get(row);
+        }
+
+        void remove(int row) {
+            present.clear(row);
+        }
+
+        static int capacity(int length, int row) {
+            return newCapacity(Math.max(length, INITIAL_CAPACITY), row + 1);
+        }
+    }
+
+    private static class IntColumn extends PrimitiveColumn {
+
+        private int[] values = new int[0];
+
+        void setValue(int row, CharSequence content) {
+            int value = FieldDecoder.parseInt(content);
+            if (row >= values.length) {
+                int[] newValues = new int[capacity(values.length, row)];
+                System.arraycopy(values, 0, newValues, 0, values.length);
+                values = newValues;
+            }
+            values[row] = value;
+        }
+
+        int get(int row) {
+            return row < values.length && hasValue(row) ? values[row] : 0;
+        }
+
+        String format(int row) {
+            return Integer.toString(values[row]);
+        }
+    }
+
+    private static class LongColumn extends PrimitiveColumn {
+
+        private long[] values = new long[0];
+
+        void setValue(int row, CharSequence content) {
+            long value = decode(content);
+            if (row >= values.length) {
+                long[] newValues = new long[capacity(values.length, row)];
+                System.arraycopy(values, 0, newValues, 0, values.length);
+                values = newValues;
+            }
+            values[row] = value;
+        }
+
+        long decode(CharSequence content) {
+            return FieldDecoder.parseLong(content);
+        }
+
+        long get(int row) {
+            return row < values.length && hasValue(row) ? values[row] : 0;
+        }
+
+        String format(int row) {
+            return Long.toString(values[row]);
+        }
+    }
+
+    private static class DateColumn extends LongColumn {
+
+        long decode(CharSequence content) {
+            return FieldDecoder.parseDate(content);
+        }
+
+        String format(int row) {
+            return FieldDecoder.formatDate(get(row));
+        }
+    }
+
+    private static class DoubleColumn extends PrimitiveColumn {
+
+        private double[] values = new double[0];
+
+        void setValue(int row, CharSequence content) {
+            double value = FieldDecoder.parseDouble(content);
+            if (row >= values.length) {
+                double[] newValues = new double[capacity(values.length, row)];
+                System.arraycopy(values, 0, newValues, 0, values.length);
+                values = newValues;
+            }
+            values[row] = value;
+        }
+
+        double get(int row) {
+            return row < values.length && hasValue(row) ? values[row] : 0;
+        }
+
+        String format(int row) {
+            return Double.toString(values[row]);
+        }
+    }
+
+    private static class BooleanColumn extends PrimitiveColumn {
+
+        private final BitSet values = new BitSet();
+
+        void setValue(int row, CharSequence content) {
+            values.set(row, FieldDecoder.parseBoolean(content));
+        }
+
+        boolean get(int row) {
+            return hasValue(row) && values.get(row);
+        }
+
+        String format(int row) {
+            return Boolean.toString(values.get(row));
+        }
+    }
+
+    private static class DictionaryColumn extends Column {
+
+        private final Dictionary dictionary = new Dictionary();
+        // Codes plus one; zero marks a position without a value
+        private int[] codes = new int[0];
+
+        void set(int row, CharSequence content) {
+            int code = content.length() == 0 ? 0 : dictionary.encode(content) + 1;
+            if (row >= codes.length) {
+                int[] newCodes = new int[newCapacity(Math.max(codes.length,
+                        INITIAL_CAPACITY), row + 1)];
+                System.arraycopy(codes, 0, newCodes, 0, codes.length);
+                codes = newCodes;
+            }
+            codes[row] = code;
+        }
+
+        boolean hasValue(int row) {
+            return row < codes.length && codes[row] != 0;
+        }
+
+        String format(int row) {
+            return dictionary.decode(codes[row] - 1);
+        }
+
+        void remove(int row) {
+            codes[row] = 0;
+        }
+    }
+
+    private static class StringColumn extends Column {
+
+        private String[] values = new String[0];
+
+        void set(int row, CharSequence content) {
+            if (row >= values.length) {
+                String[] newValues = new String[newCapacity(Math.max(values.length,
+                        INITIAL_CAPACITY), row + 1)];
+                System.arraycopy(values, 0, newValues, 0, values.length);
+                values = newValues;
+            }
+            values[row] = content.toString();
+        }
+
+        boolean hasValue(int row) {
+            return row < values.length && values[row] != null && values[row].length() > 0;
+        }
+
+        String format(int row) {
+            return values[row];
+        }
+
+        void remove(int row) {
+            values[row] = null;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import junit.framework.TestCase;
 
 import java.io.FileInputStream;
 import java.io.InputStream;
+import java.util.Spliterator;
 
 /**
  * @author Douglas Rodrigues
@@ -35,4 +36,118 @@ public class BasicCsvTest extends TestCase {
         }
         is.close();
     }
+
+    public void testRemove() throws Exception {
+        Csv csv = CsvFactory.createOfficeCsv();
+        csv.add(0, 0, "a");
+        csv.add(100, 40, "b");
+        csv.add(3, 2, "c");
+        assertTrue("Filled position not removed", csv.remove(100, 40));
+        assertFalse("Empty position removed", csv.remove(100, 40));
+        assertEquals("Wrong number of columns", 3, csv.getColumns());
+        assertEquals("Wrong number of rows", 4, csv.getRows());
+    }
+
+    public void testRows() throws Exception {
+        Csv csv = CsvFactory.createOfficeCsv();
+        csv.addRow(1, "a", "b", "c");
+        csv.addRow(1, "d", null);
+        csv.add(3, 0, "e");
+        assertEquals("Wrong number of rows", 4, csv.getRows());
+        assertEquals("Wrong number of columns", 3, csv.getColumns());
+        assertEquals("Wrong content retrieved", "d", csv.get(1, 0));
+        assertEquals("Wrong content retrieved", "", csv.get(1, 1));
+        assertEquals("Wrong content retrieved", "c", csv.get(1, 2));
+
+        Row row = csv.getRow(3);
+        assertEquals("Wrong row retrieved", 3, row.getIndex());
+        assertEquals("Wrong row size", 3, row.size());
+        assertEquals("Wrong content retrieved", "e", row.get(0));
+        assertEquals("Wrong content retrieved", "", row.get(2));
+
+        int rows = 0;
+        for (Row r : csv) {
+            assertEquals("Wrong row retrieved", rows++, r.getIndex());
+        }
+        assertEquals("Wrong number of rows iterated", 4, rows);
+
+        assertTrue("Column not removed", csv.removeColumn(2));
+        assertEquals("Wrong row size", 2, csv.getRow(1).size());
+        try {
+            csv.getRow(4);
+            fail("Reading from nonexistent row is not throwing exception");
+        } catch (IndexOutOfBoundsException e) {
+            // good
+        }
+    }
+
+    public void testStream() throws Exception {
+        Csv csv = CsvFactory.createOfficeCsv();
+        for (int i = 0; i < 10000; i++) {
+            csv.addRow(i, Integer.toString(i), "x");
+        }
+        Spliterator<Row> spliterator = csv.spliterator();
+        assertTrue("Spliterator not sized", spliterator.hasCharacteristics(Spliterator.SIZED));
+        assertTrue("Spliterator not sized", spliterator.hasCharacteristics(Spliterator.SUBSIZED));
+        Spliterator<Row> prefix = spliterator.trySplit();
+        assertEquals("Uneven split", 5000, prefix.estimateSize());
+        assertEquals("Uneven split", 5000, spliterator.estimateSize());
+
+        long sequential = csv.rows().mapToLong(row -> Long.parseLong(row.get(0))).sum();
+        long parallel = csv.rows().parallel().mapToLong(row -> Long.parseLong(row.get(0))).sum();
+        assertEquals("Wrong sum", 49995000L, sequential);
+        assertEquals("Wrong parallel sum", sequential, parallel);
+        assertEquals("Rows out of order", 9999,
+                csv.rows().parallel().reduce((first, second) -> second).get().getIndex());
+    }
+
+    public void testBulkRemove() throws Exception {
+        Csv csv = CsvFactory.createOfficeCsv();
+        for (int i = 0; i < 10; i++) {
+            for (int j = 0; j < 5; j++) {
+                csv.add(i, j, i + "-" + j);
+            }
+        }
+        assertTrue("Column not removed", csv.removeColumn(4));
+        assertFalse("Empty column removed", csv.removeColumn(4));
+        assertEquals("Wrong number of columns", 4, csv.getColumns());
+
+        assertTrue("Row not removed", csv.removeRow(9));
+        assertEquals("Wrong number of rows", 9, csv.getRows());
+
+        assertTrue("Range not removed", csv.removeRange(2, 1, 9, 4));
+        assertEquals("Wrong number of rows", 9, csv.getRows());
+        assertEquals("Position outside the range removed", "8-0", csv.get(8, 0));
+        assertEquals("Position within the range not removed", "", csv.get(8, 1));
+        assertEquals("Position outside the range removed", "1-3", csv.get(1, 3));
+
+        assertTrue("Range not removed", csv.removeRange(0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE));
+        assertEquals("Wrong number of rows", 0, csv.getRows());
+        assertEquals("Wrong number of columns", 0, csv.getColumns());
+        try {
+            csv.removeRange(2, 2, 1, 3);
+            fail("Invalid range accepted");
+        } catch (IllegalArgumentException e) {
+            // good
+        }
+    }
+
+    public void testSparseRemove() throws Exception {
+        Csv csv = CsvFactory.createOfficeCsv();
+        csv.add(0, 0, "first");
+        csv.add(3, 2, "second");
+        for (int i = 0; i < 200; i++) {
+            csv.add(5000000, 3000000, "far");
+            assertEquals("Wrong number of rows", 5000001, csv.getRows());
+            assertTrue("Content not removed", csv.remove(5000000, 3000000));
+            assertEquals("Wrong number of rows", 4, csv.getRows());
+            assertEquals("Wrong number of columns", 3, csv.getColumns());
+        }
+        assertTrue("Content not removed", csv.remove(3, 2));
+        assertEquals("Wrong number of rows", 1, csv.getRows());
+        assertEquals("Wrong number of columns", 1, csv.getColumns());
+        assertTrue("Content not removed", csv.remove(0, 0));
+        assertEquals("Wrong number of rows", 0, csv.getRows());
+        assertEquals("Wrong number of columns", 0, csv.getColumns());
+    }
 }
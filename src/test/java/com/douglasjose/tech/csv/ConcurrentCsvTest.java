@@ -0,0 +1,126 @@
+package com.douglasjose.tech.csv;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author Douglas Rodrigues
+ */
+public class ConcurrentCsvTest extends TestCase {
+
+    public void testAddAndRemove() throws Exception {
+        Csv csv = CsvFactory.createConcurrentOfficeCsv();
+        csv.add(0, 0, "a");
+        csv.add(20, 5, "b");
+        assertEquals("Wrong number of columns", 6, csv.getColumns());
+        assertEquals("Wrong number of rows", 21, csv.getRows());
+        assertEquals("Wrong content retrieved", "b", csv.get(20, 5));
+        assertEquals("Empty position is not empty", "", csv.get(10, 3));
+
+        assertTrue("Filled position not removed", csv.remove(20, 5));
+        assertFalse("Empty position removed", csv.remove(20, 5));
+        assertEquals("Wrong number of columns", 1, csv.getColumns());
+        assertEquals("Wrong number of rows", 1, csv.getRows());
+        try {
+            csv.get(1, 0);
+            fail("Reading from nonexistent row is not throwing exception");
+        } catch (IndexOutOfBoundsException e) {
+            // good
+        }
+    }
+
+    public void testRows() throws Exception {
+        Csv csv = CsvFactory.createConcurrentOfficeCsv();
+        csv.addRow(2, "a", "b");
+        csv.addRow(2, "c");
+        assertEquals("Wrong number of rows", 3, csv.getRows());
+        assertEquals("Wrong content retrieved", "c", csv.getRow(2).get(0));
+        assertEquals("Wrong content retrieved", "b", csv.getRow(2).get(1));
+
+        Iterator<Row> rows = csv.iterator();
+        csv.addRow(3, "d");
+        int count = 0;
+        while (rows.hasNext()) {
+            rows.next();
+            count++;
+        }
+        assertEquals("Iterator saw a later modification", 3, count);
+        assertTrue("Row not removed", csv.removeRow(3));
+        assertEquals("Wrong number of rows", 3, csv.getRows());
+
+        rows = csv.iterator();
+        rows.next();
+        csv.add(1, 0, "changed");
+        csv.add(2, 0, "changed");
+        assertEquals("Iterator saw a later modification", "", rows.next().get(0));
+        assertEquals("Iterator saw a later modification", "c", rows.next().get(0));
+
+        Spliterator<Row> spliterator = csv.spliterator();
+        csv.add(2, 0, "again");
+        final List<String> values = new ArrayList<String>();
+        spliterator.forEachRemaining(row -> values.add(row.get(0)));
+        assertEquals("Spliterator saw a later modification", "changed", values.get(2));
+
+        final Csv modified = csv;
+        List<String> streamed = csv.rows().map(row -> {
+            modified.add(2, 0, "during");
+            return row.get(0);
+        }).collect(Collectors.toList());
+        assertEquals("Stream saw a modification", "again", streamed.get(2));
+        assertEquals("Modification lost", "during", csv.get(2, 0));
+    }
+
+    public void testReadWhileLoading() throws Exception {
+        final Csv csv = CsvFactory.createConcurrentOfficeCsv();
+        StringBuilder file1 = new StringBuilder();
+        StringBuilder file2 = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            file1.append("old,old,old\n");
+            file2.append("new,new,new\n");
+        }
+        csv.load(new ByteArrayInputStream(file1.toString().getBytes()));
+
+        final AtomicReference<String> error = new AtomicReference<String>();
+        final boolean[] done = new boolean[1];
+        Thread reader = new Thread() {
+            public void run() {
+                while (!done[0] && error.get() == null) {
+                    // Every snapshot is complete: a row never mixes old and new content
+                    String first = csv.get(999, 0);
+                    for (int i = 0; i < 1000; i++) {
+                        for (int j = 0; j < 3; j++) {
+                            String value = csv.get(i, j);
+                            if (!value.equals("old") && !value.equals("new")) {
+                                error.set("Unexpected content: " + value);
+                            }
+                        }
+                    }
+                    if (csv.getRows() != 1000 || first.length() != 3) {
+                        error.set("Incomplete content");
+                    }
+                }
+            }
+        };
+        reader.start();
+        for (int i = 0; i < 20; i++) {
+            csv.load(new ByteArrayInputStream((i % 2 == 0 ? file2 : file1).toString().getBytes()));
+        }
+        done[0] = true;
+        reader.join();
+        assertNull(error.get(), error.get());
+        assertEquals("Wrong content retrieved", "old", csv.get(500, 1));
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        csv.store(os);
+        assertEquals("Wrong file content", file1.toString(),
+                os.toString().replace(System.getProperty("line.separator"), "\n"));
+    }
+}
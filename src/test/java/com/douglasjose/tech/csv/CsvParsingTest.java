@@ -3,6 +3,23 @@ package com.douglasjose.tech.csv;
 import junit.framework.TestCase;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Douglas Rodrigues
@@ -149,5 +166,825 @@ public class CsvParsingTest extends TestCase {
 
     }
 
-}
+    public void testLineTerminatorInContent() throws Exception {
+        Csv csv = CsvFactory.createOfficeCsv();
+        String content1 = "A\nB";
+        String content2 = "C\r\n\"D\",E";
+        csv.add(0, 0, content1);
+        csv.add(0, 1, content2);
+        csv.add(1, 0, "F");
+
+        File file = File.createTempFile("writeCsvTest", ".txt");
+        OutputStream os = new FileOutputStream(file);
+        csv.store(os);
+        os.close();
+
+        InputStream is = new FileInputStream(file);
+        csv.load(is);
+        is.close();
+
+        assertEquals("Wrong number of rows", 2, csv.getRows());
+        assertEquals("Wrong content restored from file", content1, csv.get(0, 0));
+        assertEquals("Wrong content restored from file", content2, csv.get(0, 1));
+        assertEquals("Wrong content restored from file", "F", csv.get(1, 0));
+
+        csv.load(file.toPath());
+        assertEquals("Wrong number of rows", 2, csv.getRows());
+        assertEquals("Wrong content restored from file", content2, csv.get(0, 1));
+
+        file.deleteOnExit();
+    }
+
+    public void testCharsets() throws Exception {
+        String content1 = "S\u00e3o Paulo";
+        String content2 = "\u20ac 10,00";
+        for (String name : new String[] {"UTF-8", "ISO-8859-1", "UTF-16"}) {
+            Charset charset = Charset.forName(name);
+            Csv csv = CsvFactory.createOfficeCsv(charset);
+            csv.add(0, 0, content1);
+            csv.add(0, 1, name.equals("ISO-8859-1") ? "10,00" : content2);
+
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            csv.store(os);
+            assertEquals("Wrong encoding: " + name, "\"", new String(os.toByteArray(), charset)
+                    .substring(content1.length() + 1, content1.length() + 2));
+
+            csv.load(new ByteArrayInputStream(os.toByteArray()));
+            assertEquals("Wrong content restored from file: " + name, content1, csv.get(0, 0));
+            assertEquals("Wrong content restored from file: " + name,
+                    name.equals("ISO-8859-1") ? "10,00" : content2, csv.get(0, 1));
+
+            Csv other = CsvFactory.createOfficeCsv();
+            new CustomDelimitersCsvParser(",", "\"").loadFile(other,
+                    new ByteArrayInputStream(os.toByteArray()), charset);
+            assertEquals("Wrong content restored from file: " + name, content1, other.get(0, 0));
+        }
+    }
+
+    public void testHeader() throws Exception {
+        String content = "id,name,price\n1,\"Widget, large\",9.99\n2,Gadget,5\n";
+        Csv csv = CsvFactory.createOfficeCsv(HeaderMode.FIRST_ROW);
+        csv.load(new ByteArrayInputStream(content.getBytes()));
+        assertEquals("Wrong number of rows", 2, csv.getRows());
+        assertEquals("Wrong column resolved", 1, csv.getHeader().indexOf("name"));
+        assertEquals("Wrong content retrieved", "Widget, large", csv.get(0, "name"));
+        assertEquals("Wrong content retrieved", "5", csv.get(1, "price"));
+        try {
+            csv.get(0, "weight");
+            fail("Unknown column resolved");
+        } catch (IllegalArgumentException e) {
+            // good
+        }
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        csv.store(os);
+        Csv copy = CsvFactory.createOfficeCsv(HeaderMode.DETECT);
+        copy.load(new ByteArrayInputStream(os.toByteArray()));
+        assertNotNull("Header not detected", copy.getHeader());
+        assertEquals("Wrong number of rows", 2, copy.getRows());
+        assertEquals("Wrong content retrieved", "Gadget", copy.get(1, "name"));
+
+        copy.load(new ByteArrayInputStream("NaN,Infinity,1d,0x1p3\n1,2.5,-3e2,4\n".getBytes()));
+        assertNotNull("Names taken as numbers", copy.getHeader());
+        assertEquals("Wrong column resolved", 3, copy.getHeader().indexOf("0x1p3"));
+        assertEquals("Wrong number of rows", 1, copy.getRows());
+
+        copy.load(new ByteArrayInputStream("a,b\nc,d\n".getBytes()));
+        assertNull("Text row detected as header", copy.getHeader());
+        assertEquals("Wrong number of rows", 2, copy.getRows());
+        try {
+            copy.get(0, "a");
+            fail("Column resolved without header");
+        } catch (IllegalStateException e) {
+            // good
+        }
+
+        Csv concurrent = CsvFactory.createConcurrentCsv(new CustomDelimitersCsvParser(",", "\"")
+                .withHeaderMode(HeaderMode.FIRST_ROW));
+        concurrent.load(new ByteArrayInputStream(content.getBytes()));
+        assertEquals("Wrong content retrieved", "9.99", concurrent.get(0, "price"));
+    }
+
+    public void testProjection() throws Exception {
+        String content = "id,name,price,stock\n1,\"Widget, large\",9.99,4\n2,Gadget,5\n";
+        Csv csv = CsvFactory.createCsv(new CustomDelimitersCsvParser(",", "\"")
+                .withHeaderMode(HeaderMode.FIRST_ROW)
+                .withProjection(Projection.ofNames("stock", "id")));
+        csv.load(new ByteArrayInputStream(content.getBytes()));
+        assertEquals("Wrong number of rows", 2, csv.getRows());
+        assertEquals("Wrong number of columns", 2, csv.getColumns());
+        assertEquals("Wrong header", "stock", csv.getHeader().getName(0));
+        assertEquals("Wrong content retrieved", "4", csv.get(0, "stock"));
+        assertEquals("Wrong content retrieved", "", csv.get(1, 0));
+        assertEquals("Wrong content retrieved", "2", csv.get(1, "id"));
+
+        csv = CsvFactory.createCsv(new CustomDelimitersCsvParser(",", "\"")
+                .withProjection(Projection.ofColumns(1)));
+        csv.load(new ByteArrayInputStream(content.getBytes()));
+        assertEquals("Wrong number of rows", 3, csv.getRows());
+        assertEquals("Wrong number of columns", 1, csv.getColumns());
+        assertEquals("Wrong content retrieved", "Widget, large", csv.get(1, 0));
+
+        csv = CsvFactory.createCsv(new CustomDelimitersCsvParser(",", "\"")
+                .withHeaderMode(HeaderMode.FIRST_ROW).withProjection(Projection.ofNames("weight")));
+        try {
+            csv.load(new ByteArrayInputStream(content.getBytes()));
+            fail("Unknown column loaded");
+        } catch (IOException e) {
+            // good
+        }
+    }
+
+    public void testRowFilter() throws Exception {
+        String content = "id,name,price\n1,Widget,9.99\n2,Gadget,5\n3,Gizmo,12\n4,Gadget,20\n";
+        RowFilter filter = RowFilters.and(RowFilters.equalTo(1, "Gadget"),
+                RowFilters.not(RowFilters.between(2, 10, 100)));
+        Csv csv = CsvFactory.createCsv(new CustomDelimitersCsvParser(",", "\"")
+                .withHeaderMode(HeaderMode.FIRST_ROW).withRowFilter(filter));
+        csv.load(new ByteArrayInputStream(content.getBytes()));
+        assertEquals("Wrong number of rows", 1, csv.getRows());
+        assertEquals("Header filtered", "price", csv.getHeader().getName(2));
+        assertEquals("Wrong content retrieved", "2", csv.get(0, "id"));
+
+        csv = CsvFactory.createCsv(new CustomDelimitersCsvParser(",", "\"")
+                .withHeaderMode(HeaderMode.DETECT).withProjection(Projection.ofNames("id"))
+                .withRowFilter(RowFilters.or(RowFilters.between(2, 10, 15),
+                        RowFilters.equalTo(1, "Widget"))));
+        csv.load(new ByteArrayInputStream(content.getBytes()));
+        assertEquals("Wrong number of rows", 2, csv.getRows());
+        assertEquals("Wrong content retrieved", "1", csv.get(0, 0));
+        assertEquals("Wrong content retrieved", "3", csv.get(1, 0));
+    }
+
+    public void testParallelLoad() throws Exception {
+        File file = File.createTempFile("parallelCsvTest", ".txt");
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file)));
+        int rows = 60000;
+        for (int i = 0; i < rows; i++) {
+            if (i % 1000 == 0) {
+                writer.write("\r\n"); // Empty rows are kept
+            } else if (i % 7 == 0) {
+                writer.write(i + ",\"multi\r\nline\n\"\"" + i + "\"\"\",last\n");
+            } else {
+                writer.write(i + ",\"quoted, " + i + "\",unquoted content " + i + "\r\n");
+            }
+        }
+        writer.close();
+
+        Csv expected = CsvFactory.createOfficeDenseCsv();
+        expected.load(new FileInputStream(file));
+
+        Csv csv = CsvFactory.createOfficeDenseCsv();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        new CustomDelimitersCsvParser(",", "\"").loadFile(csv,
+                FileChannel.open(file.toPath(), StandardOpenOption.READ), pool);
+        pool.shutdown();
+
+        assertEquals("Wrong number of rows", rows, csv.getRows());
+        assertEquals("Wrong number of columns", 3, csv.getColumns());
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < 3; j++) {
+                assertEquals("Wrong content retrieved", expected.get(i, j), csv.get(i, j));
+            }
+        }
+        assertEquals("Wrong content retrieved", "quoted, 59999", csv.get(59999, 1));
+        assertEquals("Wrong content retrieved", "multi\r\nline\n\"59997\"", csv.get(59997, 1));
+
+        Csv headed = CsvFactory.createOfficeDenseCsv();
+        pool = new ForkJoinPool(4);
+        new CustomDelimitersCsvParser(",", "\"").withHeaderMode(HeaderMode.FIRST_ROW)
+                .loadFile(headed, FileChannel.open(file.toPath(), StandardOpenOption.READ), pool);
+        pool.shutdown();
+        assertEquals("Header not read", 0, headed.getHeader().size());
+        assertEquals("Wrong number of rows", rows - 1, headed.getRows());
+        assertEquals("Wrong content retrieved", "quoted, 59999", headed.get(59998, 1));
+
+        Csv projected = CsvFactory.createOfficeDenseCsv();
+        pool = new ForkJoinPool(4);
+        new CustomDelimitersCsvParser(",", "\"")
+                .withProjection(Projection.ofColumns(2, 0)).loadFile(projected,
+                FileChannel.open(file.toPath(), StandardOpenOption.READ), pool);
+        pool.shutdown();
+        assertEquals("Wrong number of columns", 2, projected.getColumns());
+        assertEquals("Wrong content retrieved", "unquoted content 59999", projected.get(59999, 0));
+        assertEquals("Wrong content retrieved", "59999", projected.get(59999, 1));
+
+        Csv filtered = CsvFactory.createOfficeDenseCsv();
+        pool = new ForkJoinPool(4);
+        new CustomDelimitersCsvParser(",", "\"")
+                .withProjection(Projection.ofColumns(1))
+                .withRowFilter(RowFilters.between(0, 30000, 30009)).loadFile(filtered,
+                FileChannel.open(file.toPath(), StandardOpenOption.READ), pool);
+        pool.shutdown();
+        assertEquals("Empty row not filtered", 9, filtered.getRows());
+        assertEquals("Wrong content retrieved", "quoted, 30001", filtered.get(0, 0));
+
+        file.deleteOnExit();
+    }
+
+
+    public void testCompression() throws Exception {
+        Csv csv = CsvFactory.createOfficeCsv(Compression.GZIP);
+        for (int i = 0; i < 20000; i++) {
+            csv.addRow(i, "row " + i, "\"quoted\", " + i, String.valueOf(i * 7));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        csv.store(out);
+        byte[] compressed = out.toByteArray();
+        assertEquals("File not compressed", 0x1f, compressed[0] & 0xff);
+        assertEquals("File not compressed", 0x8b, compressed[1] & 0xff);
+
+        Csv copy = CsvFactory.createOfficeCsv();
+        copy.load(new ByteArrayInputStream(compressed));
+        assertEquals("Wrong number of rows", 20000, copy.getRows());
+        assertEquals("Wrong content read", "\"quoted\", 19999", copy.get(19999, 1));
+
+        File file = File.createTempFile("compressedCsvTest", ".csv.gz");
+        OutputStream os = new FileOutputStream(file);
+        os.write(compressed);
+        os.close();
+        copy = CsvFactory.createOfficeCsv();
+        copy.load(file.toPath());
+        assertEquals("Wrong number of rows", 20000, copy.getRows());
+        copy = CsvFactory.createOfficeCsv();
+        new CustomDelimitersCsvParser(",", "\"").loadFile(copy,
+                FileChannel.open(file.toPath(), StandardOpenOption.READ), ForkJoinPool.commonPool());
+        assertEquals("Wrong content read", "139993", copy.get(19999, 2));
+
+        CsvReader reader = new CsvReader(new ByteArrayInputStream(compressed), ",", "\"");
+        assertEquals("Wrong content read", "row 0", reader.nextRow().get(0));
+        reader.close();
+
+        copy = CsvFactory.createOfficeCsv();
+        copy.load(new ByteArrayInputStream(new byte[0]));
+        assertEquals("Empty file not read", 0, copy.getRows());
+        file.delete();
+    }
+
+    public void testFollow() throws Exception {
+        File file = File.createTempFile("followCsvTest", ".csv");
+        Csv csv = CsvFactory.createOfficeCsv(HeaderMode.FIRST_ROW);
+        CsvFollower follower = new CustomDelimitersCsvParser(",", "\"", Charset.forName("UTF-8"))
+                .withHeaderMode(HeaderMode.FIRST_ROW).follow(csv, file.toPath());
+        assertEquals("Records read from an empty file", 0, follower.refresh());
+
+        append(file, "id,name\r");
+        assertEquals("Wrong number of records read", 1, follower.refresh());
+        assertEquals("Header not read", "name", csv.getHeader().getName(1));
+        append(file, "\n1,\"multi");
+        assertEquals("Partial record read", 0, follower.refresh());
+        assertEquals("Partial record stored", 0, csv.getRows());
+        assertEquals("Wrong offset", "id,name\r".length(), follower.getOffset());
+
+        append(file, "\nline\"\r\n2,b");
+        assertEquals("Wrong number of records read", 1, follower.refresh());
+        assertEquals("Wrong content read", "multi\nline", csv.get(0, "name"));
+        append(file, "\n3,c\n");
+        assertEquals("Wrong number of records read", 2, follower.refresh());
+        assertEquals("Wrong number of rows", 3, csv.getRows());
+        assertEquals("Wrong content read", "b", csv.get(1, 1));
+        assertEquals("Wrong content read", "3", csv.get(2, 0));
+        assertEquals("Wrong offset", file.length(), follower.getOffset());
+        assertEquals("Records read twice", 0, follower.refresh());
+
+        new FileOutputStream(file).close();
+        try {
+            follower.refresh();
+            fail("Truncated file followed");
+        } catch (IOException e) {
+            // Expected
+        }
+        try {
+            new CustomDelimitersCsvParser(",", "\"", Charset.forName("UTF-16"))
+                    .follow(CsvFactory.createOfficeCsv(), file.toPath());
+            fail("File in an encoding which is not ASCII compatible followed");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        file.delete();
+    }
+
+    private static void append(File file, String content) throws IOException {
+        OutputStream os = new FileOutputStream(file, true);
+        os.write(content.getBytes("UTF-8"));
+        os.close();
+    }
+
+    public void testAsync() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Csv csv = CsvFactory.createOfficeCsv();
+        csv.addRow(0, "a", "b,c");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvFactory.storeAsync(csv, out, executor).get(10, TimeUnit.SECONDS);
+
+        Csv copy = CsvFactory.loadAsync(CsvFactory.createOfficeCsv(),
+                new ByteArrayInputStream(out.toByteArray()), executor).get(10, TimeUnit.SECONDS);
+        assertEquals("Wrong content loaded", "b,c", copy.get(0, 1));
+
+        File missing = new File(File.createTempFile("asyncCsvTest", ".csv").getPath() + ".missing");
+        try {
+            CsvFactory.loadAsync(CsvFactory.createOfficeCsv(), missing.toPath(), executor)
+                    .get(10, TimeUnit.SECONDS);
+            fail("Missing file loaded");
+        } catch (ExecutionException e) {
+            assertTrue("Wrong failure", e.getCause() instanceof IOException);
+        }
+
+        CustomDelimitersCsvParser parser = new CustomDelimitersCsvParser(";", "'");
+        out = new ByteArrayOutputStream();
+        CsvFactory.storeAsync(parser, csv, out, executor).get(10, TimeUnit.SECONDS);
+        assertEquals("Wrong content written", "a;b,c\n", out.toString().replace("\r", ""));
+        copy = CsvFactory.loadAsync(parser, CsvFactory.createOfficeCsv(),
+                new ByteArrayInputStream(out.toByteArray()), executor).get(10, TimeUnit.SECONDS);
+        assertEquals("Wrong content loaded", "b,c", copy.get(0, 1));
+
+        File file = File.createTempFile("asyncCsvTest", ".csv");
+        file.deleteOnExit();
+        OutputStream os = new FileOutputStream(file);
+        os.write(out.toByteArray());
+        os.close();
+        Csv fromFile = CsvFactory.loadAsync(parser, CsvFactory.createOfficeCsv(), file.toPath(),
+                executor).get(10, TimeUnit.SECONDS);
+        assertEquals("Wrong content loaded", "b,c", fromFile.get(0, 1));
+
+        executor.shutdown();
+        try {
+            CsvFactory.loadAsync(CsvFactory.createOfficeCsv(), file.toPath(), executor)
+                    .get(10, TimeUnit.SECONDS);
+            fail("Load run by a terminated executor");
+        } catch (ExecutionException e) {
+            assertTrue("Wrong failure", e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+
+    public void testMetrics() throws Exception {
+        CsvStatistics statistics = new CsvStatistics();
+        CustomDelimitersCsvParser parser = new CustomDelimitersCsvParser(",", "\"",
+                Charset.forName("UTF-8")).withHeaderMode(HeaderMode.FIRST_ROW)
+                .withRowFilter(RowFilters.not(RowFilters.equalTo(0, "skip")))
+                .withListener(statistics);
+        byte[] content = "id,name\n1,\"a,b\"\nskip,c\n2,\"d\"\"e\"\n".getBytes("UTF-8");
+        Csv csv = CsvFactory.createCsv(parser);
+        csv.load(new ByteArrayInputStream(content));
+
+        assertEquals("Wrong number of loads", 1, statistics.getLoads());
+        CsvMetrics metrics = statistics.getLoadTotals();
+        assertEquals("Wrong number of records", 4, metrics.getRecords());
+        assertEquals("Wrong number of rows", 2, metrics.getRows());
+        assertEquals("Wrong number of fields", 8, metrics.getFields());
+        assertEquals("Wrong number of quoted fields", 2, metrics.getQuotedFields());
+        assertEquals("Wrong number of bytes", content.length, metrics.getBytes());
+        assertEquals("Wrong quoted field ratio", 0.25, metrics.getQuotedFieldRatio());
+        assertTrue("Phases longer than the load", metrics.getCsvNanos() >= 0
+                && metrics.getFileNanos() >= 0);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        csv.store(out);
+        metrics = statistics.getWriteTotals();
+        assertEquals("Wrong number of writes", 1, statistics.getWrites());
+        assertEquals("Wrong number of records", 3, metrics.getRecords());
+        assertEquals("Wrong number of rows", 2, metrics.getRows());
+        assertEquals("Wrong number of fields", 6, metrics.getFields());
+        assertEquals("Wrong number of quoted fields", 2, metrics.getQuotedFields());
+        assertEquals("Wrong number of bytes", out.size(), metrics.getBytes());
+
+        File file = File.createTempFile("metricsCsvTest", ".csv");
+        OutputStream os = new FileOutputStream(file);
+        os.write(content);
+        os.close();
+        csv.load(file.toPath());
+        assertEquals("Wrong number of loads", 2, statistics.getLoads());
+        assertEquals("Wrong number of records", 8, statistics.getLoadTotals().getRecords());
+        assertEquals("Wrong number of quoted fields", 4,
+                statistics.getLoadTotals().getQuotedFields());
+        statistics.reset();
+        assertEquals("Metrics not reset", 0, statistics.getLoadTotals().getRecords());
+        file.delete();
+    }
+
+    public void testChannelClosedOnFailure() throws Exception {
+        File file = File.createTempFile("jcsvlib", ".csv");
+        file.deleteOnExit();
+        OutputStream os = new FileOutputStream(file);
+        os.write("a,b\nc,d\n".getBytes());
+        os.close();
+
+        CustomDelimitersCsvParser parser = new CustomDelimitersCsvParser(",", "\"")
+                .withRowFilter(new RowFilter() {
+                    public boolean accept(CsvRecord record) {
+                        throw new IllegalStateException("Rejected");
+                    }
+                });
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            parser.loadFile(CsvFactory.createOfficeCsv(), channel);
+            fail("Failing filter ignored");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        assertFalse("Channel left open", channel.isOpen());
+
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            parser.loadFile(CsvFactory.createOfficeCsv(), channel, ForkJoinPool.commonPool());
+            fail("Failing filter ignored");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        assertFalse("Channel left open", channel.isOpen());
+
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            new SnapshotCsvParser().loadFile(CsvFactory.createOfficeCsv(), channel);
+            fail("Invalid snapshot loaded");
+        } catch (IOException e) {
+            // Expected
+        }
+        assertFalse("Channel left open", channel.isOpen());
+    }
+
+    public void testParserCopies() throws Exception {
+        CustomDelimitersCsvParser parser = new CustomDelimitersCsvParser(";", "'",
+                Charset.forName("UTF-8"));
+        Projection projection = Projection.ofColumns(1);
+        CustomDelimitersCsvParser copy = parser.withHeaderMode(HeaderMode.FIRST_ROW)
+                .withProjection(projection).withCompression(Compression.GZIP);
+        assertEquals("Wrong field separator", ";", copy.getFieldSeparator());
+        assertEquals("Wrong text delimiter", "'", copy.getTextDelimiter());
+        assertEquals("Wrong charset", Charset.forName("UTF-8"), copy.getCharset());
+        assertEquals("Wrong header mode", HeaderMode.FIRST_ROW, copy.getHeaderMode());
+        assertSame("Wrong projection", projection, copy.getProjection());
+        assertEquals("Wrong compression", Compression.GZIP, copy.getCompression());
+        assertEquals("Original parser modified", HeaderMode.NONE, parser.getHeaderMode());
+        assertNull("Original parser modified", parser.getProjection());
+        assertEquals("Original parser modified", Compression.NONE, parser.getCompression());
+        try {
+            parser.withHeaderMode(null);
+            fail("Invalid header mode accepted");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        try {
+            parser.withCompression(null);
+            fail("Invalid compression accepted");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    public void testFollowMetrics() throws Exception {
+        CsvStatistics statistics = new CsvStatistics();
+        File file = File.createTempFile("followMetricsCsvTest", ".csv");
+        file.deleteOnExit();
+        Csv csv = CsvFactory.createOfficeCsv();
+        CsvFollower follower = new CustomDelimitersCsvParser(",", "\"", Charset.forName("UTF-8"))
+                .withHeaderMode(HeaderMode.FIRST_ROW).withListener(statistics)
+                .follow(csv, file.toPath());
+
+        append(file, "id,name\n1,\"a,b\"\n2,\"c");
+        assertEquals("Wrong number of records read", 2, follower.refresh());
+        assertEquals("Wrong number of loads", 1, statistics.getLoads());
+        CsvMetrics metrics = statistics.getLoadTotals();
+        assertEquals("Wrong number of records", 2, metrics.getRecords());
+        assertEquals("Wrong number of rows", 1, metrics.getRows());
+        assertEquals("Wrong number of fields", 4, metrics.getFields());
+        assertEquals("Partial record counted", 1, metrics.getQuotedFields());
+        assertEquals("Wrong number of bytes", 16, metrics.getBytes());
+
+        statistics.reset();
+        append(file, "d\"\n");
+        assertEquals("Wrong number of records read", 1, follower.refresh());
+        metrics = statistics.getLoadTotals();
+        assertEquals("Wrong number of records", 1, metrics.getRecords());
+        assertEquals("Wrong number of rows", 1, metrics.getRows());
+        assertEquals("Wrong number of fields", 2, metrics.getFields());
+        assertEquals("Wrong number of quoted fields", 1, metrics.getQuotedFields());
+        assertEquals("Wrong number of bytes", 7, metrics.getBytes());
+
+        statistics.reset();
+        assertEquals("Wrong number of records read", 0, follower.refresh());
+        assertEquals("Wrong number of loads", 1, statistics.getLoads());
+        assertEquals("Metrics of an empty refresh", 0, statistics.getLoadTotals().getRecords());
+        assertEquals("Wrong content loaded", "cd", csv.get(1, "name"));
+    }
+
+    public void testFailedCompressedLoad() throws Exception {
+        Csv csv = CsvFactory.createOfficeCsv(Compression.GZIP);
+        for (int i = 0; i < 100000; i++) {
+            csv.addRow(i, "row " + i, String.valueOf(i * 7));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        csv.store(out);
+        byte[] compressed = out.toByteArray();
+        byte[] truncated = new byte[compressed.length / 2];
+        System.arraycopy(compressed, 0, truncated, 0, truncated.length);
+        File file = File.createTempFile("corruptCsvTest", ".csv.gz");
+        file.deleteOnExit();
+        OutputStream os = new FileOutputStream(file);
+        os.write(truncated);
+        os.close();
+
+        for (int i = 0; i < 3; i++) {
+            try {
+                CsvFactory.createOfficeCsv().load(file.toPath());
+                fail("Corrupt file loaded");
+            } catch (IOException e) {
+                // Expected
+            }
+        }
+        CustomDelimitersCsvParser parser = new CustomDelimitersCsvParser(",", "\"")
+                .withRowFilter(new RowFilter() {
+                    public boolean accept(CsvRecord record) {
+                        throw new IllegalStateException("Rejected");
+                    }
+                });
+        for (int i = 0; i < 3; i++) {
+            try {
+                parser.loadFile(CsvFactory.createOfficeCsv(), new ByteArrayInputStream(compressed));
+                fail("Failing filter ignored");
+            } catch (IllegalStateException e) {
+                // Expected
+            }
+        }
+        assertEquals("Read-ahead threads left running", 0, readAheadThreads());
+
+        // A reader abandoned without being closed does not keep its thread running
+        CsvReader reader = parser.createReader(new ByteArrayInputStream(compressed));
+        assertNotNull("Record not read", reader.nextRecord());
+        assertEquals("Read-ahead thread not started", 1, readAheadThreads());
+        reader = null;
+        for (int i = 0; i < 100 && readAheadThreads() > 0; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        assertEquals("Abandoned read-ahead thread left running", 0, readAheadThreads());
+    }
+
+    private static int readAheadThreads() {
+        int count = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("jcsvlib-read-ahead") && thread.isAlive()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public void testParallelFailure() throws Exception {
+        File file = File.createTempFile("parallelFailureCsvTest", ".csv");
+        file.deleteOnExit();
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        for (int i = 0; i < 1000; i++) {
+            writer.write(i + ",\"row " + i + "\"\n");
+        }
+        writer.close();
+        RowFilter failing = new RowFilter() {
+            public boolean accept(CsvRecord record) {
+                throw new IllegalStateException("Rejected");
+            }
+        };
+        ParallelLoader parallel = new ParallelLoader(",", "\"", Charset.forName("UTF-8"));
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        // Many more ranges than are parsed ahead of the one being stored
+        Csv csv = CsvFactory.createOfficeCsv();
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        parallel.load(new RecordLoader(csv, HeaderMode.NONE, null, null), channel, pool, 1024,
+                null);
+        channel.close();
+        assertEquals("Wrong number of rows", 1000, csv.getRows());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("Wrong content loaded", "row " + i, csv.get(i, 1));
+        }
+
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            parallel.load(new RecordLoader(CsvFactory.createOfficeCsv(), HeaderMode.NONE, null,
+                    failing), channel, pool, 1024, null);
+            fail("Failing filter ignored");
+        } catch (IllegalStateException e) {
+            assertEquals("Exception wrapped", "Rejected", e.getMessage());
+        } finally {
+            channel.close();
+        }
+
+        // Ranges are mapped by the delimiter counters, then by the boundary search, then by the
+        // range parsers
+        final FileChannel source = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        int ranges = (int) ((source.size() + 1023) / 1024);
+        channel = new FailingMapChannel(source, 2 * (ranges - 1));
+        try {
+            parallel.load(new RecordLoader(CsvFactory.createOfficeCsv(), HeaderMode.NONE, null,
+                    null), channel, pool, 1024, null);
+            fail("Failing channel ignored");
+        } catch (IOException e) {
+            assertEquals("Exception wrapped", "Mapping failed", e.getMessage());
+        } finally {
+            source.close();
+        }
+        pool.shutdown();
+    }
+
+    /**
+     * Channel which fails to map the file after a number of mappings.
+     */
+    private static class FailingMapChannel extends FileChannel {
+
+        private final FileChannel channel;
+        private final AtomicInteger mappings;
+
+        FailingMapChannel(FileChannel channel, int mappings) {
+            this.channel = channel;
+            this.mappings = new AtomicInteger(mappings);
+        }
+
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            if (mappings.getAndDecrement() <= 0) {
+                throw new IOException("Mapping failed");
+            }
+            return channel.map(mode, position, size);
+        }
+
+        public int read(ByteBuffer dst) throws IOException {
+            return channel.read(dst);
+        }
+
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return channel.read(dsts, offset, length);
+        }
+
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return channel.read(dst, position);
+        }
+
+        public int write(ByteBuffer src) throws IOException {
+            return channel.write(src);
+        }
+
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return channel.write(srcs, offset, length);
+        }
+
+        public int write(ByteBuffer src, long position) throws IOException {
+            return channel.write(src, position);
+        }
+
+        public long position() throws IOException {
+            return channel.position();
+        }
+
+        public FileChannel position(long newPosition) throws IOException {
+            channel.position(newPosition);
+            return this;
+        }
+
+        public long size() throws IOException {
+            return channel.size();
+        }
 
+        public FileChannel truncate(long size) throws IOException {
+            channel.truncate(size);
+            return this;
+        }
+
+        public void force(boolean metaData) throws IOException {
+            channel.force(metaData);
+        }
+
+        public long transferTo(long position, long count, WritableByteChannel target)
+                throws IOException {
+            return channel.transferTo(position, count, target);
+        }
+
+        public long transferFrom(ReadableByteChannel src, long position, long count)
+                throws IOException {
+            return channel.transferFrom(src, position, count);
+        }
+
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return channel.lock(position, size, shared);
+        }
+
+        public FileLock tryLock(long position, long size, boolean shared)
+                throws IOException {
+            return channel.tryLock(position, size, shared);
+        }
+
+        protected void implCloseChannel() throws IOException {
+            channel.close();
+        }
+    }
+
+    public void testDefaultMethods() throws Exception {
+        // Implements only the methods of the original interface
+        Csv csv = new Csv() {
+
+            private final Map<String, String> cells = new HashMap<String, String>();
+            private int rows = 0;
+            private int columns = 0;
+
+            public void add(int row, int column, String content) {
+                cells.put(row + "," + column, content);
+                rows = Math.max(rows, row + 1);
+                columns = Math.max(columns, column + 1);
+            }
+
+            public String get(int row, int column) {
+                String content = cells.get(row + "," + column);
+                return content != null ? content : "";
+            }
+
+            public boolean remove(int row, int column) {
+                return cells.remove(row + "," + column) != null;
+            }
+
+            public void load(InputStream is) throws IOException {
+                CsvReader reader = CsvFactory.createOfficeReader(is);
+                CsvRecord record;
+                for (int row = 0; (record = reader.nextRecord()) != null; row++) {
+                    for (int column = 0; column < record.size(); column++) {
+                        add(row, column, record.get(column).toString());
+                    }
+                }
+            }
+
+            public void store(OutputStream os) throws IOException {
+                throw new UnsupportedOperationException();
+            }
+
+            public int getColumns() {
+                return columns;
+            }
+
+            public int getRows() {
+                return rows;
+            }
+        };
+        csv.addRow(0, "a", "b");
+        csv.addRow(1, "c", "d");
+        assertEquals("Wrong row read", "d", csv.getRow(1).get(1));
+        int rows = 0;
+        for (Row row : csv) {
+            assertEquals("Wrong row iterated", rows++, row.getIndex());
+        }
+        assertEquals("Wrong number of rows iterated", 2, rows);
+        assertEquals("Wrong number of rows streamed", 2, csv.rows().parallel().count());
+        assertNull("Header without support", csv.getHeader());
+        try {
+            csv.setHeader(new Header("x", "y"));
+            fail("Header set without support");
+        } catch (UnsupportedOperationException e) {
+            // Expected
+        }
+        assertTrue("Column not removed", csv.removeColumn(0));
+        assertEquals("Column not removed", "", csv.get(1, 0));
+        assertEquals("Wrong content removed", "d", csv.get(1, 1));
+        assertTrue("Row not removed", csv.removeRow(1));
+        assertEquals("Row not removed", "", csv.get(1, 1));
+
+        File file = File.createTempFile("defaultCsvTest", ".csv");
+        file.deleteOnExit();
+        OutputStream os = new FileOutputStream(file);
+        os.write("e,f\n".getBytes());
+        os.close();
+        csv.load(file.toPath());
+        assertEquals("Wrong content loaded", "f", csv.get(0, 1));
+    }
+
+    public void testDefaultParserMethods() throws Exception {
+        // Implements only the methods of the original interface, one field per line
+        CsvParser parser = new CsvParser() {
+
+            public void writeFile(Csv csv, OutputStream os) throws IOException {
+                Writer writer = new OutputStreamWriter(os, "UTF-8");
+                for (int row = 0; row < csv.getRows(); row++) {
+                    writer.write(csv.get(row, 0) + "\n");
+                }
+                writer.close();
+            }
+
+            public void loadFile(Csv csv, InputStream is) throws IOException {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(is, "UTF-8"));
+                String line;
+                for (int row = 0; (line = reader.readLine()) != null; row++) {
+                    csv.add(row, 0, line);
+                }
+            }
+        };
+        Csv csv = CsvFactory.createCsv(parser);
+        csv.add(0, 0, "a,b");
+        csv.add(1, 0, "c");
+        File file = File.createTempFile("defaultParserTest", ".txt");
+        file.deleteOnExit();
+        OutputStream os = new FileOutputStream(file);
+        parser.writeFile(csv, os, Charset.forName("UTF-8"));
+
+        Csv copy = CsvFactory.createCsv(parser);
+        copy.load(file.toPath());
+        assertEquals("Wrong number of rows", 2, copy.getRows());
+        assertEquals("Wrong content loaded", "a,b", copy.get(0, 0));
+        copy = CsvFactory.createCsv(parser);
+        parser.loadFile(copy, new FileInputStream(file), Charset.forName("UTF-8"));
+        assertEquals("Wrong content loaded", "c", copy.get(1, 0));
+    }
+}
@@ -0,0 +1,289 @@
+package com.douglasjose.tech.csv;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author Douglas Rodrigues
+ */
+public class CsvReaderTest extends TestCase {
+
+    public void testNextRow() throws Exception {
+        CsvReader reader = CsvFactory.createOfficeReader(
+                new FileInputStream("./src/test/resources/testSimpleCsv.csv"));
+
+        Row row = reader.nextRow();
+        assertNotNull("No row read", row);
+        assertEquals("Wrong row index", 0, row.getIndex());
+        assertEquals("Wrong number of fields", 3, row.size());
+        assertEquals("Wrong content retrieved", "a", row.get(0));
+
+        row = reader.nextRow();
+        assertEquals("Wrong content retrieved", "e", row.get(1));
+        assertEquals("Missing field is not empty", "", row.get(5));
+
+        reader.nextRow();
+        row = reader.nextRow();
+        assertEquals("Wrong row index", 3, row.getIndex());
+        assertNull("Reading past the end of the file", reader.nextRow());
+        reader.close();
+    }
+
+    public void testIterator() throws Exception {
+        String content = "A;\"B;C\"\n\"D\"\"E\";F\n";
+        CsvReader reader = CsvFactory.createReaderWithCustomDelimiters(
+                new ByteArrayInputStream(content.getBytes()), ";", "\"");
+
+        int rows = 0;
+        for (Row row : reader) {
+            assertEquals("Wrong row index", rows, row.getIndex());
+            assertEquals("Wrong number of fields", 2, row.size());
+            rows++;
+        }
+        assertEquals("Wrong number of rows", 2, rows);
+        reader.close();
+
+        reader = CsvFactory.createReaderWithCustomDelimiters(
+                new ByteArrayInputStream(content.getBytes()), ";", "\"");
+        assertEquals("Wrong content retrieved", "B;C", reader.nextRow().get(1));
+        assertEquals("Wrong content retrieved", "D\"E", reader.nextRow().get(0));
+        reader.close();
+    }
+
+    public void testNextRecord() throws Exception {
+        StringBuilder longField = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            longField.append((char) ('a' + i % 26));
+        }
+        String content = "A,\"B,\"\"C\"\"\"\r\n\r\n" + longField + ",D\rE,";
+        CsvReader reader = CsvFactory.createOfficeReader(
+                new ByteArrayInputStream(content.getBytes()));
+
+        CsvRecord record = reader.nextRecord();
+        assertEquals("Wrong number of fields", 2, record.size());
+        assertEquals("Wrong content retrieved", "A", record.get(0).toString());
+        CharSequence field = record.get(1);
+        assertEquals("Wrong field length", 5, field.length());
+        assertEquals("Wrong content retrieved", '"', field.charAt(2));
+        assertEquals("Wrong content retrieved", "B,\"C\"", field.toString());
+        assertEquals("Wrong content retrieved", "C\"", field.subSequence(3, 5).toString());
+
+        record = reader.nextRecord();
+        assertEquals("Wrong row index", 1, record.getIndex());
+        assertEquals("Empty line has fields", 0, record.size());
+
+        record = reader.nextRecord();
+        assertEquals("Wrong content retrieved", longField.toString(), record.get(0).toString());
+        assertEquals("Wrong content retrieved", "D", record.get(1).toString());
+
+        Row row = reader.nextRow();
+        assertEquals("Wrong row index", 3, row.getIndex());
+        assertEquals("Wrong number of fields", 1, row.size());
+        assertEquals("Wrong content retrieved", "E", row.get(0));
+        assertNull("Reading past the end of the file", reader.nextRecord());
+        reader.close();
+    }
+
+    public void testMappedFile() throws Exception {
+        File file = File.createTempFile("mappedCsvTest", ".txt");
+        OutputStream os = new FileOutputStream(file);
+        for (int i = 0; i < 100; i++) {
+            os.write(("row" + i + ",\"x,\"\"" + i + "\"\"\",\u00e7\u00e3o\r\n").getBytes("UTF-8"));
+        }
+        os.close();
+
+        // Small windows, so most of the lines cross the boundary of a window
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        CsvReader reader = new CsvReader(new MappedRecordScanner(channel, 0, channel.size(),
+                ",", "\"", Charset.forName("UTF-8"), 7));
+        int rows = 0;
+        CsvRecord record;
+        while ((record = reader.nextRecord()) != null) {
+            assertEquals("Wrong row index", rows, record.getIndex());
+            assertEquals("Wrong number of fields", 3, record.size());
+            assertEquals("Wrong content retrieved", "row" + rows, record.get(0).toString());
+            assertEquals("Wrong content retrieved", "x,\"" + rows + "\"", record.get(1).toString());
+            assertEquals("Wrong content retrieved", "\u00e7\u00e3o", record.get(2).toString());
+            assertEquals("Wrong field length", 3, record.get(2).length());
+            rows++;
+        }
+        assertEquals("Wrong number of rows", 100, rows);
+        reader.close();
+
+        Csv csv = CsvFactory.createOfficeCsv();
+        csv.load(file.toPath());
+        assertEquals("Wrong number of rows", 100, csv.getRows());
+        assertEquals("Wrong content retrieved", "row99", csv.get(99, 0));
+
+        file.deleteOnExit();
+    }
+
+    public void testRandomContent() throws Exception {
+        String[][] delimiters = {{",", "\""}, {"|", "'"}, {"::", "\""}, {";", "<>"}};
+        String[] tokens = {"a", "1", "|", ";", "<>", "::", "'", ",", "\"", "\r", "\n", " ",
+                "\u00e9", "\u4e2d"};
+        Random random = new Random(42);
+        for (String[] delimiter : delimiters) {
+            Csv csv = CsvFactory.createCsv(new CustomDelimitersCsvParser(delimiter[0],
+                    delimiter[1], Charset.forName("UTF-8")));
+            for (int i = 0; i < 300; i++) {
+                for (int j = 0; j < 6; j++) {
+                    StringBuilder field = new StringBuilder();
+                    int length = random.nextInt(40);
+                    for (int k = 0; k < length; k++) {
+                        field.append(random.nextInt(4) > 0 ? "x"
+                                : tokens[random.nextInt(tokens.length)]);
+                    }
+                    csv.add(i, j, field.toString());
+                }
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            csv.store(out);
+            for (String charset : new String[]{"UTF-8", "UTF-16"}) {
+                byte[] content = new String(out.toByteArray(), "UTF-8").getBytes(charset);
+                CsvReader reader = new CsvReader(new ByteArrayInputStream(content),
+                        delimiter[0], delimiter[1], Charset.forName(charset));
+                for (int i = 0; i < csv.getRows(); i++) {
+                    Row row = reader.nextRow();
+                    for (int j = 0; j < csv.getColumns(); j++) {
+                        assertEquals("Wrong content retrieved", csv.get(i, j), row.get(j));
+                    }
+                }
+                assertNull("Reading past the end of the file", reader.nextRow());
+                reader.close();
+            }
+        }
+    }
+
+    public void testPublisher() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            content.append(i).append(",row ").append(i).append('\n');
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        final List<Row> rows = new CopyOnWriteArrayList<Row>();
+        final CountDownLatch completed = new CountDownLatch(1);
+        final AtomicReference<Flow.Subscription> subscription =
+                new AtomicReference<Flow.Subscription>();
+        CsvPublisher publisher = CsvFactory.createOfficePublisher(
+                new ByteArrayInputStream(content.toString().getBytes("UTF-8")), executor);
+        publisher.subscribe(new Flow.Subscriber<Row>() {
+            public void onSubscribe(Flow.Subscription s) {
+                subscription.set(s);
+                s.request(1);
+            }
+
+            public void onNext(Row row) {
+                rows.add(row);
+                subscription.get().request(1);
+            }
+
+            public void onError(Throwable throwable) {
+            }
+
+            public void onComplete() {
+                completed.countDown();
+            }
+        });
+        assertTrue("Publisher not completed", completed.await(10, TimeUnit.SECONDS));
+        assertEquals("Wrong number of rows", 1000, rows.size());
+        assertEquals("Wrong content delivered", "row 999", rows.get(999).get(1));
+
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        final CountDownLatch failed = new CountDownLatch(1);
+        publisher.subscribe(new Flow.Subscriber<Row>() {
+            public void onSubscribe(Flow.Subscription s) {
+            }
+
+            public void onNext(Row row) {
+            }
+
+            public void onError(Throwable throwable) {
+                error.set(throwable);
+                failed.countDown();
+            }
+
+            public void onComplete() {
+            }
+        });
+        assertTrue("Second subscriber accepted", failed.await(10, TimeUnit.SECONDS));
+
+        // Rows are only read when requested
+        final CountDownLatch received = new CountDownLatch(3);
+        final AtomicInteger count = new AtomicInteger();
+        CsvPublisher throttled = CsvFactory.createOfficePublisher(
+                new ByteArrayInputStream(content.toString().getBytes("UTF-8")), executor);
+        throttled.subscribe(new Flow.Subscriber<Row>() {
+            public void onSubscribe(Flow.Subscription s) {
+                subscription.set(s);
+                s.request(3);
+            }
+
+            public void onNext(Row row) {
+                count.incrementAndGet();
+                received.countDown();
+            }
+
+            public void onError(Throwable throwable) {
+            }
+
+            public void onComplete() {
+            }
+        });
+        assertTrue("Requested rows not delivered", received.await(10, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals("More rows delivered than requested", 3, count.get());
+        subscription.get().cancel();
+        executor.shutdown();
+        assertTrue("Executor not terminated", executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // A terminated executor rejects the drain task
+        error.set(null);
+        final AtomicInteger signals = new AtomicInteger();
+        CsvPublisher rejected = CsvFactory.createOfficePublisher(
+                new ByteArrayInputStream(content.toString().getBytes("UTF-8")), executor);
+        rejected.subscribe(new Flow.Subscriber<Row>() {
+            public void onSubscribe(Flow.Subscription s) {
+                subscription.set(s);
+                s.request(1);
+            }
+
+            public void onNext(Row row) {
+                signals.incrementAndGet();
+            }
+
+            public void onError(Throwable throwable) {
+                error.set(throwable);
+                signals.incrementAndGet();
+            }
+
+            public void onComplete() {
+                signals.incrementAndGet();
+            }
+        });
+        assertTrue("Rejection not signalled", error.get() instanceof RejectedExecutionException);
+        subscription.get().request(1);
+        subscription.get().cancel();
+        assertEquals("Signals after the rejection", 1, signals.get());
+    }
+}
@@ -0,0 +1,64 @@
+package com.douglasjose.tech.csv;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+
+/**
+ * @author Douglas Rodrigues
+ */
+public class CsvWriterTest extends TestCase {
+
+    public void testWriteRow() throws Exception {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        CsvWriter writer = CsvFactory.createWriterWithCustomDelimiters(os, "[F]", "[T]");
+        writer.writeRow("content", "cont[F]ent", "[F]");
+        writer.writeField("[T]");
+        writer.writeField(new StringBuilder("[T]content[T]"));
+        writer.writeField("");
+        writer.endRow();
+        writer.close();
+
+        File file = File.createTempFile("writeCsvTest", ".txt");
+        FileOutputStream fos = new FileOutputStream(file);
+        fos.write(os.toByteArray());
+        fos.close();
+        assertTrue("Wrong file content: " + file.getAbsolutePath(), TestUtils.identicalFiles(file,
+                new File("./src/test/resources/testMulticharacterSeparators.txt")));
+        file.deleteOnExit();
+    }
+
+    public void testCopyRecords() throws Exception {
+        CsvReader reader = CsvFactory.createOfficeReader(
+                new FileInputStream("./src/test/resources/testSimpleCsv.csv"));
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        CsvWriter writer = CsvFactory.createWriterWithCustomDelimiters(os, ";", "'");
+        CsvRecord record;
+        while ((record = reader.nextRecord()) != null) {
+            writer.writeRow(record);
+        }
+        writer.writeRow("x;y", "it's", "multi\nline");
+        reader.close();
+        writer.close();
+
+        reader = CsvFactory.createReaderWithCustomDelimiters(
+                new ByteArrayInputStream(os.toByteArray()), ";", "'");
+        Row row = reader.nextRow();
+        assertEquals("Wrong content retrieved", "a", row.get(0));
+        assertEquals("Wrong content retrieved", "c", row.get(2));
+        for (int i = 0; i < 3; i++) {
+            row = reader.nextRow();
+        }
+        assertEquals("Wrong content retrieved", "l", row.get(2));
+        row = reader.nextRow();
+        assertEquals("Wrong content retrieved", "x;y", row.get(0));
+        assertEquals("Wrong content retrieved", "it's", row.get(1));
+        assertEquals("Wrong content retrieved", "multi\nline", row.get(2));
+        assertNull("Reading past the end of the file", reader.nextRow());
+        reader.close();
+    }
+}
@@ -0,0 +1,67 @@
+package com.douglasjose.tech.csv;
+
+import junit.framework.TestCase;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+
+/**
+ * @author Douglas Rodrigues
+ */
+public class DenseCsvTest extends TestCase {
+
+    public void testSimpleCsv() throws Exception {
+        Csv csv = CsvFactory.createOfficeDenseCsv();
+        InputStream is = new FileInputStream("./src/test/resources/testSimpleCsv.csv");
+
+        csv.load(is);
+        assertEquals("Wrong number of columns", 3, csv.getColumns());
+        assertEquals("Wrong number of rows", 4, csv.getRows());
+        assertEquals("Wrong content retrieved", "e", csv.get(1,1));
+
+        try {
+            csv.get(5, 1);
+            fail("Reading from nonexistent row is not throwing exception");
+        } catch (IndexOutOfBoundsException e) {
+            // good
+        }
+        try {
+            csv.get(1, 5);
+            fail("Reading from nonexistent column is not throwing exception");
+        } catch (IndexOutOfBoundsException e) {
+            // good
+        }
+        is.close();
+    }
+
+    public void testRemove() throws Exception {
+        Csv csv = CsvFactory.createOfficeDenseCsv();
+        csv.add(0, 0, "a");
+        csv.add(100, 40, "b");
+        csv.add(3, 2, "c");
+        assertEquals("Wrong number of columns", 41, csv.getColumns());
+        assertEquals("Wrong number of rows", 101, csv.getRows());
+        assertEquals("Empty position is not empty", "", csv.get(50, 20));
+
+        assertTrue("Filled position not removed", csv.remove(100, 40));
+        assertFalse("Empty position removed", csv.remove(100, 40));
+        assertEquals("Wrong number of columns", 3, csv.getColumns());
+        assertEquals("Wrong number of rows", 4, csv.getRows());
+
+        assertTrue("Filled position not removed", csv.remove(3, 2));
+        assertEquals("Wrong number of columns", 1, csv.getColumns());
+        assertEquals("Wrong number of rows", 1, csv.getRows());
+        assertEquals("Wrong content retrieved", "a", csv.get(0, 0));
+    }
+
+    public void testBulkRemove() throws Exception {
+        Csv csv = CsvFactory.createOfficeDenseCsv();
+        csv.add(0, 0, "a");
+        csv.add(5, 3, "b");
+        csv.add(2, 3, "c");
+        assertTrue("Column not removed", csv.removeColumn(3));
+        assertEquals("Wrong number of columns", 1, csv.getColumns());
+        assertEquals("Wrong number of rows", 1, csv.getRows());
+        assertFalse("Empty row removed", csv.removeRow(5));
+    }
+}
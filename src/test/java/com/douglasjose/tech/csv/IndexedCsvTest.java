@@ -0,0 +1,66 @@
+package com.douglasjose.tech.csv;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * @author Douglas Rodrigues
+ */
+public class IndexedCsvTest extends TestCase {
+
+    public void testHashIndex() throws Exception {
+        IndexedCsv csv = CsvFactory.indexedCsv(CsvFactory.createOfficeCsv());
+        csv.load(new ByteArrayInputStream("a,1\nb,2\na,3\n".getBytes()));
+        csv.createIndex(0);
+        assertTrue("Wrong rows found", Arrays.equals(new int[] {0, 2}, csv.find(0, "a")));
+        assertEquals("Wrong row found", 1, csv.findFirst(0, "b"));
+        assertEquals("Missing value found", -1, csv.findFirst(0, "c"));
+
+        csv.add(5, 0, "a");
+        csv.add(0, 0, "c");
+        assertTrue("Index not updated", Arrays.equals(new int[] {2, 5}, csv.find(0, "a")));
+        assertEquals("Index not updated", 0, csv.findFirst(0, "c"));
+
+        assertTrue("Filled position not removed", csv.remove(2, 0));
+        assertTrue("Index not updated", Arrays.equals(new int[] {5}, csv.find(0, "a")));
+        assertTrue("Row not removed", csv.removeRow(5));
+        assertEquals("Index not updated", -1, csv.findFirst(0, "a"));
+
+        csv.load(new ByteArrayInputStream("x,1\na,2\n".getBytes()));
+        assertTrue("Index not rebuilt", Arrays.equals(new int[] {1}, csv.find(0, "a")));
+        assertEquals("Index not rebuilt", -1, csv.findFirst(0, "c"));
+
+        try {
+            csv.find(1, "1");
+            fail("Column without index searched");
+        } catch (IllegalStateException e) {
+            // good
+        }
+    }
+
+    public void testSortedIndex() throws Exception {
+        IndexedCsv csv = CsvFactory.indexedCsv(CsvFactory.createOfficeDenseCsv());
+        csv.load(new ByteArrayInputStream("a,30\nb,4\nc,100\nd,4\ne,\n".getBytes()));
+        csv.createSortedIndex(1, new Comparator<String>() {
+            public int compare(String o1, String o2) {
+                return Integer.valueOf(o1).compareTo(Integer.valueOf(o2));
+            }
+        });
+        assertTrue("Wrong rows found", Arrays.equals(new int[] {1, 3, 0},
+                csv.findRange(1, "4", "30")));
+        csv.add(4, 1, "5");
+        assertTrue("Index not updated", Arrays.equals(new int[] {1, 3, 4},
+                csv.findRange(1, "1", "9")));
+
+        csv.createIndex(0);
+        try {
+            csv.findRange(0, "a", "b");
+            fail("Range searched in hash index");
+        } catch (IllegalStateException e) {
+            // good
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.douglasjose.tech.csv;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * @author Douglas Rodrigues
+ */
+public class SnapshotCsvTest extends TestCase {
+
+    private static Csv referenceCsv() {
+        Csv csv = CsvFactory.createOfficeCsv();
+        csv.setHeader(new Header("code", "name", "regi\u00e3o"));
+        for (int i = 0; i < 500; i++) {
+            csv.addRow(i, "c" + i, i % 2 == 0 ? "even" : "odd", i % 5 == 0 ? "" : "S\u00e3o Paulo");
+        }
+        csv.add(510, 4, "last");
+        return csv;
+    }
+
+    private static void assertSameContent(Csv expected, Csv actual) {
+        assertEquals("Wrong number of rows", expected.getRows(), actual.getRows());
+        assertEquals("Wrong number of columns", expected.getColumns(), actual.getColumns());
+        assertEquals("Wrong header", expected.getHeader().getName(2),
+                actual.getHeader().getName(2));
+        for (int i = 0; i < expected.getRows(); i++) {
+            for (int j = 0; j < expected.getColumns(); j++) {
+                assertEquals("Wrong content retrieved", expected.get(i, j), actual.get(i, j));
+            }
+        }
+    }
+
+    public void testRoundTrip() throws Exception {
+        Csv csv = referenceCsv();
+        File file = File.createTempFile("snapshotCsvTest", ".bin");
+        new SnapshotCsvParser().writeFile(csv, new FileOutputStream(file));
+
+        Csv snapshot = CsvFactory.createSnapshotCsv();
+        snapshot.load(file.toPath());
+        assertSameContent(csv, snapshot);
+        assertSame("Repeated value not shared", snapshot.get(0, 1), snapshot.get(2, 1));
+        assertEquals("Wrong content retrieved", "odd", snapshot.get(1, "name"));
+
+        Csv copy = CsvFactory.createCsv(new SnapshotCsvParser());
+        copy.load(file.toPath());
+        assertSameContent(csv, copy);
+        copy.add(0, 0, "changed");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        snapshot.store(out);
+        snapshot.load(new ByteArrayInputStream(out.toByteArray()));
+        assertSameContent(csv, snapshot);
+        file.delete();
+    }
+
+    public void testReadOnly() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new SnapshotCsvParser().writeFile(referenceCsv(), out);
+        Csv snapshot = CsvFactory.createSnapshotCsv();
+        snapshot.load(new ByteArrayInputStream(out.toByteArray()));
+        try {
+            snapshot.add(0, 0, "changed");
+            fail("Snapshot modified");
+        } catch (UnsupportedOperationException e) {
+            // Expected
+        }
+        try {
+            snapshot.removeRow(0);
+            fail("Snapshot modified");
+        } catch (UnsupportedOperationException e) {
+            // Expected
+        }
+
+        try {
+            snapshot.load(new ByteArrayInputStream("a,b,c\n".getBytes("UTF-8")));
+            fail("Text file read as a snapshot");
+        } catch (IOException e) {
+            // Expected
+        }
+        try {
+            snapshot.load(new ByteArrayInputStream(out.toByteArray(), 0, 40));
+            fail("Truncated snapshot read");
+        } catch (IOException e) {
+            // Expected
+        }
+        assertEquals("Content kept after failed load", 0, snapshot.getRows());
+    }
+}
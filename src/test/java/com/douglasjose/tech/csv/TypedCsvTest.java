@@ -0,0 +1,187 @@
+package com.douglasjose.tech.csv;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+/**
+ * @author Douglas Rodrigues
+ */
+public class TypedCsvTest extends TestCase {
+
+    private static CsvSchema metricsSchema() {
+        return new CsvSchema()
+                .addColumn("host", ColumnType.STRING)
+                .addColumn("requests", ColumnType.INT)
+                .addColumn("bytes", ColumnType.LONG)
+                .addColumn("latency", ColumnType.DOUBLE)
+                .addColumn("healthy", ColumnType.BOOLEAN)
+                .addColumn("day", ColumnType.DATE);
+    }
+
+    public void testLoad() throws Exception {
+        String content = "web-1,120,5000000000,12.5,true,2014-03-01\n"
+                + "\"web,2\",-7,-1,0.001,FALSE,2014-03-01T12:30:00.250Z\n"
+                + "web-3,,,,,,extra\n";
+        TypedCsv csv = CsvFactory.createOfficeTypedCsv(metricsSchema());
+        csv.load(new ByteArrayInputStream(content.getBytes("UTF-8")));
+
+        assertEquals("Wrong number of rows", 3, csv.getRows());
+        assertEquals("Wrong number of columns", 7, csv.getColumns());
+        assertEquals("Wrong content retrieved", "web,2", csv.get(1, 0));
+        assertEquals("Wrong int retrieved", 120, csv.getInt(0, 1));
+        assertEquals("Wrong int retrieved", -7, csv.getInt(1, 1));
+        assertEquals("Wrong long retrieved", 5000000000L, csv.getLong(0, 2));
+        assertEquals("Wrong double retrieved", 12.5, csv.getDouble(0, 3));
+        assertEquals("Wrong double retrieved", 0.001, csv.getDouble(1, 3));
+        assertEquals("Int not widened", 120.0, csv.getDouble(0, 1));
+        assertTrue("Wrong boolean retrieved", csv.getBoolean(0, 4));
+        assertFalse("Wrong boolean retrieved", csv.getBoolean(1, 4));
+        assertEquals("Wrong date retrieved", 1393632000000L, csv.getDate(0, 5).getTime());
+        assertEquals("Wrong date retrieved", 1393677000250L, csv.getLong(1, 5));
+
+        assertFalse("Empty field holds a value", csv.hasValue(2, 1));
+        assertEquals("Empty field not read as zero", 0, csv.getInt(2, 1));
+        assertNull("Empty date not read as null", csv.getDate(2, 5));
+        assertEquals("Wrong content retrieved", "", csv.get(2, 3));
+        assertEquals("Undeclared column not read as text", "extra", csv.get(2, 6));
+
+        assertEquals("Wrong canonical content", "12.5", csv.get(0, 3));
+        assertEquals("Wrong canonical content", "false", csv.get(1, 4));
+        assertEquals("Wrong canonical content", "2014-03-01", csv.get(0, 5));
+        assertEquals("Wrong canonical content", "2014-03-01T12:30:00.250Z", csv.get(1, 5));
+    }
+
+    public void testRoundTrip() throws Exception {
+        TypedCsv csv = CsvFactory.createOfficeTypedCsv(metricsSchema());
+        csv.add(0, 0, "a");
+        csv.add(0, 1, "1");
+        csv.add(1, 3, "-2.25");
+        csv.add(1, 5, "1969-12-31T23:59:59Z");
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        csv.store(os);
+        TypedCsv copy = CsvFactory.createOfficeTypedCsv(metricsSchema());
+        copy.load(new ByteArrayInputStream(os.toByteArray()));
+        assertEquals("Wrong number of rows", 2, copy.getRows());
+        assertEquals("Wrong int retrieved", 1, copy.getInt(0, 1));
+        assertEquals("Wrong double retrieved", -2.25, copy.getDouble(1, 3));
+        assertEquals("Wrong date retrieved", -1000L, copy.getLong(1, 5));
+    }
+
+    public void testInvalidContent() throws Exception {
+        TypedCsv csv = CsvFactory.createOfficeTypedCsv(metricsSchema());
+        csv.add(0, 1, "5");
+        try {
+            csv.add(0, 1, "five");
+            fail("Invalid int accepted");
+        } catch (NumberFormatException e) {
+            // good
+        }
+        assertEquals("Invalid content modified the data structure", 5, csv.getInt(0, 1));
+        try {
+            csv.add(0, 1, "2147483648");
+            fail("Int overflow accepted");
+        } catch (NumberFormatException e) {
+            // good
+        }
+        try {
+            csv.add(0, 5, "2014-02-30");
+            fail("Invalid date accepted");
+        } catch (IllegalArgumentException e) {
+            // good
+        }
+        try {
+            csv.getInt(0, 3);
+            fail("Double column read as int");
+        } catch (IllegalArgumentException e) {
+            // good
+        }
+        try {
+            csv.load(new ByteArrayInputStream("a,1\nb,x\n".getBytes("UTF-8")));
+            fail("Invalid file accepted");
+        } catch (NumberFormatException e) {
+            // good
+        }
+    }
+
+    public void testRemove() throws Exception {
+        TypedCsv csv = CsvFactory.createOfficeTypedCsv(metricsSchema());
+        csv.add(0, 1, "1");
+        csv.add(9, 3, "2.5");
+        assertTrue("Filled position not removed", csv.remove(9, 3));
+        assertFalse("Empty position removed", csv.remove(9, 3));
+        assertEquals("Wrong number of rows", 1, csv.getRows());
+        assertEquals("Wrong number of columns", 2, csv.getColumns());
+    }
+
+    public void testNumberDecoding() throws Exception {
+        assertEquals(Long.MIN_VALUE, FieldDecoder.parseLong("-9223372036854775808"));
+        assertEquals(Long.MAX_VALUE, FieldDecoder.parseLong("+9223372036854775807"));
+        try {
+            FieldDecoder.parseLong("9223372036854775808");
+            fail("Long overflow accepted");
+        } catch (NumberFormatException e) {
+            // good
+        }
+        String[] doubles = {"0", "-0", "1.", ".5", "1e3", "-2.5E-7", "NaN", "-Infinity",
+                "123456789012345678", "0.1000000000000000055511151231257827", "3.14159"};
+        for (String s : doubles) {
+            assertEquals("Wrong double decoded: " + s, Double.parseDouble(s),
+                    FieldDecoder.parseDouble(s));
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < 10000; i++) {
+            String s = Long.toString(random.nextLong() % 1000000000000L) + "."
+                    + Integer.toString(random.nextInt(1000));
+            assertEquals("Wrong double decoded: " + s, Double.parseDouble(s),
+                    FieldDecoder.parseDouble(s));
+        }
+        try {
+            FieldDecoder.parseDouble("1.2.3");
+            fail("Invalid double accepted");
+        } catch (NumberFormatException e) {
+            // good
+        }
+    }
+
+    public void testDictionary() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            content.append("country-").append(i % 50).append(',').append(i % 3 == 0 ? "EUR" : "USD")
+                    .append(',').append(i % 7 == 0 ? "" : "x").append('\n');
+        }
+        TypedCsv csv = CsvFactory.createOfficeTypedCsv(new CsvSchema()
+                .addColumn("country", ColumnType.DICTIONARY)
+                .setDefaultType(ColumnType.DICTIONARY));
+        csv.load(new ByteArrayInputStream(content.toString().getBytes("UTF-8")));
+
+        assertEquals("Wrong number of rows", 1000, csv.getRows());
+        assertEquals("Wrong content retrieved", "country-49", csv.get(999, 0));
+        assertEquals("Wrong content retrieved", "EUR", csv.get(999, 1));
+        assertSame("Repeated value not shared", csv.get(0, 0), csv.get(50, 0));
+        assertSame("Repeated value not shared", csv.get(0, 1), csv.get(3, 1));
+        assertFalse("Empty field holds a value", csv.hasValue(0, 2));
+        assertEquals("Wrong content retrieved", "", csv.get(0, 2));
+
+        csv.add(1000, 1, "GBP");
+        csv.add(0, 1, "USD");
+        assertSame("Added value not shared", csv.get(1, 1), csv.get(0, 1));
+        assertEquals("Wrong content retrieved", "GBP", csv.get(1000, 1));
+        assertTrue("Value not removed", csv.remove(1000, 1));
+        assertEquals("Wrong number of rows", 1000, csv.getRows());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        csv.store(out);
+        TypedCsv copy = CsvFactory.createOfficeTypedCsv(new CsvSchema()
+                .setDefaultType(ColumnType.DICTIONARY));
+        copy.load(new ByteArrayInputStream(out.toByteArray()));
+        for (int i = 0; i < csv.getRows(); i++) {
+            for (int j = 0; j < csv.getColumns(); j++) {
+                assertEquals("Content changed by round trip", csv.get(i, j), copy.get(i, j));
+            }
+        }
+    }
+}
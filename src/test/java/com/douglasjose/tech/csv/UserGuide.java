@@ -24,6 +24,10 @@ public class UserGuide {
 
         // Iterate over data structure
         iterate(csv);
+
+        // Iterate over the rows, reading each of them at once
+        csv.addRow(2, "first", "second");
+        iterateRows(csv);
     }
 
     private static void iterate(Csv csv) {
@@ -35,4 +39,12 @@ public class UserGuide {
             }
         }
     }
+
+    private static void iterateRows(Csv csv) {
+        for (Row row : csv) {
+            for (int j = 0; j < row.size(); j++) {
+                System.out.println(row.get(j));
+            }
+        }
+    }
 }